@@ -0,0 +1,88 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.dto.StudentDto;
+import com.example.SpringSecurity.utility.AppUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot helpers in AppUtils that run on every request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AppUtilsBenchmark {
+
+    private Map<String, String> pageParams;
+    private String idList;
+    private List<StudentDto> payload;
+
+    @Setup
+    public void setUp() {
+        pageParams = new HashMap<>();
+        pageParams.put("page", "3");
+        pageParams.put("size", "25");
+        pageParams.put("sortBy", "lastName");
+        pageParams.put("sortDir", "asc");
+
+        StringJoiner ids = new StringJoiner(",");
+        for (int i = 0; i < 20; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+        idList = ids.toString();
+        payload = StudentDtoFixtures.students(10);
+    }
+
+    @Benchmark
+    public String transformToSnake() {
+        return AppUtils.transformToSnake("createdAtTimestampValue");
+    }
+
+    @Benchmark
+    public ZonedDateTime parseZonedDateTime() {
+        return AppUtils.parseZoneDateTime("2024-04-24T10:15:30+01:00[Africa/Accra]");
+    }
+
+    @Benchmark
+    public ZonedDateTime parseLocalDateTime() {
+        return AppUtils.parseZoneDateTime("2024-04-24T10:15:30");
+    }
+
+    @Benchmark
+    public ZonedDateTime parseLocalDate() {
+        return AppUtils.parseZoneDateTime("2024-04-24");
+    }
+
+    @Benchmark
+    public ZonedDateTime parseInvalidDate() {
+        return AppUtils.parseZoneDateTime("24/04/2024");
+    }
+
+    @Benchmark
+    public List<UUID> getListFromString() {
+        return AppUtils.getListFromString(idList, UUID::fromString);
+    }
+
+    @Benchmark
+    public Pageable getPageRequest() {
+        return AppUtils.getPageRequest(pageParams);
+    }
+
+    @Benchmark
+    public ResponseDTO getResponseDTO() {
+        return AppUtils.getResponseDTO("Successfully retrieved students", HttpStatus.OK, payload);
+    }
+}
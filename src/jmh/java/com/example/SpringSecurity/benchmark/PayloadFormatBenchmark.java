@@ -0,0 +1,79 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.dto.StudentDto;
+import com.example.SpringSecurity.utility.AppUtils;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.Data;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of a findAll response in each negotiable format, with the same mapper settings.
+ * The encoded size of each payload is printed once per trial.
+ *
+ * mvn -B -q -Pbenchmarks verify -DskipTests -Djmh.include=PayloadFormatBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private ResponseDTO response;
+    private byte[] encoded;
+
+    /**
+     * What a consumer decodes the response into
+     */
+    @Data
+    public static class StudentsResponse {
+        private int statusCode;
+        private String message;
+        private List<StudentDto> data;
+        private ZonedDateTime date;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        response = AppUtils.getResponseDTO("Successfully retrieved students", HttpStatus.OK, StudentDtoFixtures.students(rows));
+        encoded = objectMapper.writeValueAsBytes(response);
+        System.out.printf("%n%s, %d rows: %d bytes%n", format, rows, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public StudentsResponse decode() throws Exception {
+        return objectMapper.readValue(encoded, StudentsResponse.class);
+    }
+}
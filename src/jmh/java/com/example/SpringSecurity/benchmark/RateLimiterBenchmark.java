@@ -0,0 +1,56 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.throttling.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a rate limit check, for a hot client and spread over many clients, single and multi threaded
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 100_000;
+
+    private RateLimiter rateLimiter;
+    private RateLimiter.Rule rule;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter(CLIENTS);
+        rule = new RateLimiter.Rule(1_000_000, 1_000);
+        keys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            keys[i] = "0|biggest-api:user-" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public long singleClient() {
+        return rateLimiter.tryAcquire(keys[0], rule, System.nanoTime());
+    }
+
+    @Benchmark
+    public long manyClients(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % CLIENTS;
+        return rateLimiter.tryAcquire(keys[cursor.next], rule, System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long singleClientContended() {
+        return rateLimiter.tryAcquire(keys[0], rule, System.nanoTime());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.security.AuthenticatedUserConverter;
+import com.example.SpringSecurity.security.SecurityConfig;
+import com.example.SpringSecurity.utility.AppUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Role checks and the JWT to authentication conversion done for every authenticated request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecurityBenchmark {
+
+    private List<GrantedAuthority> authorities;
+    private List<String> wantedRoles;
+    private JwtAuthenticationConverter converter;
+    private AuthenticatedUserConverter userConverter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        authorities = List.of(
+                new SimpleGrantedAuthority("offline_access"),
+                new SimpleGrantedAuthority("uma_authorization"),
+                new SimpleGrantedAuthority("default-roles-derrick"),
+                new SimpleGrantedAuthority("STUDENT"),
+                new SimpleGrantedAuthority("ADMIN"));
+        wantedRoles = List.of("LECTURER", "ADMIN");
+
+        converter = new SecurityConfig().jwtAuthenticationConverter();
+        userConverter = new AuthenticatedUserConverter(converter);
+        Instant now = Instant.now();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .claim("azp", "biggest-api")
+                .claim("email", "student@example.com")
+                .claim("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization", "STUDENT", "ADMIN")))
+                .claim("resource_access", Map.of("biggest-api", Map.of("roles", List.of("manage-students"))))
+                .build();
+    }
+
+    @Benchmark
+    public boolean hasRole() {
+        return AppUtils.hasRole(authorities, wantedRoles);
+    }
+
+    @Benchmark
+    public boolean hasAdminRole() {
+        return AppUtils.hasAdminRole(authorities);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken jwtAuthenticationConverter() {
+        return converter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken authenticatedUserConverter() {
+        return userConverter.convert(jwt);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.dto.StudentDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deterministic student payloads shared by the benchmarks
+ */
+final class StudentDtoFixtures {
+
+    private StudentDtoFixtures() {
+    }
+
+    static List<StudentDto> students(int count) {
+        List<StudentDto> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(StudentDto.builder()
+                    .id(new UUID(0x5eedL, i))
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("student" + i + "@example.com")
+                    .version((long) i % 7)
+                    .build());
+        }
+        return students;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.dto.StudentDto;
+import com.example.SpringSecurity.utility.AppUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the findAll response and decoding of a create request body
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudentDtoSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private byte[] requestBody;
+
+    @State(Scope.Benchmark)
+    public static class Response {
+
+        @Param({"1", "100", "1000"})
+        public int rows;
+
+        private ResponseDTO response;
+
+        @Setup
+        public void setUp() {
+            response = AppUtils.getResponseDTO("Successfully retrieved students", HttpStatus.OK, StudentDtoFixtures.students(rows));
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        requestBody = objectMapper.writeValueAsBytes(StudentDtoFixtures.students(1).get(0));
+    }
+
+    @Benchmark
+    public byte[] serializeResponse(Response state) throws Exception {
+        return objectMapper.writeValueAsBytes(state.response);
+    }
+
+    @Benchmark
+    public StudentDto deserializeStudent() throws Exception {
+        return objectMapper.readValue(requestBody, StudentDto.class);
+    }
+}
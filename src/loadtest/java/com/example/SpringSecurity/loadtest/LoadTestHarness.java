@@ -0,0 +1,282 @@
+package com.example.SpringSecurity.loadtest;
+
+import com.example.SpringSecurity.SpringSecurityApplication;
+import com.example.SpringSecurity.student.Student;
+import com.example.SpringSecurity.student.StudentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test that needs nothing outside the JVM: the service runs in-process on an
+ * in-memory H2 database, authenticating against a {@link LocalTokenIssuer} instead of Keycloak.
+ *
+ * Requests are fired on an open model (fixed or Poisson arrival schedule), and latency is measured
+ * from the intended send time rather than the actual one, so a stalled server shows up in the
+ * percentiles instead of silently lowering the request rate (coordinated omission).
+ *
+ * Run with: mvn -Ploadtest verify -DskipTests -Dloadtest.rate=300 -Dloadtest.duration=60 -Dloadtest.label=$(git rev-parse --short HEAD)
+ */
+public class LoadTestHarness {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LoadTestSettings settings;
+    private final Workload workload;
+    private final HttpClient client;
+    private final ExecutorService clientExecutor;
+    private final Recorder[] recorders;
+    private final Map<String, AtomicLong> statuses = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    LoadTestHarness(LoadTestSettings settings, Workload workload) {
+        this.settings = settings;
+        this.workload = workload;
+        this.clientExecutor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+        this.recorders = new Recorder[workload.names().size()];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = new LoadTestSettings();
+
+        try (LocalTokenIssuer issuer = new LocalTokenIssuer();
+             ConfigurableApplicationContext application = startApplication(issuer)) {
+
+            List<UUID> ids = seed(application.getBean(StudentRepository.class), settings.students);
+            String baseUrl = "http://127.0.0.1:" + application.getEnvironment().getProperty("local.server.port") + "/api/v1/students";
+            String token = issuer.mint("loadtest-user", List.of("ADMIN", "USER"), settings.warmupSeconds + settings.durationSeconds + 600);
+
+            LoadTestHarness harness = new LoadTestHarness(settings, new Workload(baseUrl, token, ids, settings.mix));
+            try {
+                harness.run(settings.warmupSeconds);
+                harness.reset();
+                Instant started = Instant.now();
+                harness.run(settings.durationSeconds);
+                harness.report(started, Instant.now());
+            } finally {
+                harness.clientExecutor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Boots the service against H2 and the local issuer, the Flyway migrations create the schema.
+     * Everything is passed as command line arguments so it takes precedence over application.yml.
+     */
+    private static ConfigurableApplicationContext startApplication(LocalTokenIssuer issuer) throws Exception {
+        Path policyConfig = writePolicyEnforcerConfig(issuer);
+        String[] arguments = {
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.security.oauth2.resource-server.jwt.issuer-uri=" + issuer.getIssuer(),
+                "--security.policy-enforcer.config=" + policyConfig.toUri(),
+                "--logging.level.root=WARN",
+                // one client sends all the load, per client limits would only measure the limiter
+                "--student.rate-limit.enabled=" + System.getProperty("loadtest.rate-limit", "false"),
+                "--spring.main.banner-mode=off"
+        };
+        return new SpringApplicationBuilder(SpringSecurityApplication.class).run(arguments);
+    }
+
+    /**
+     * Copies the packaged policy-enforcer.json, pointing it at the local issuer
+     */
+    static Path writePolicyEnforcerConfig(LocalTokenIssuer issuer) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode config;
+        try (InputStream in = new ClassPathResource("policy-enforcer.json").getInputStream()) {
+            config = (ObjectNode) objectMapper.readTree(in);
+        }
+        config.put("auth-server-url", issuer.getServerUrl());
+        config.put("realm", LocalTokenIssuer.REALM);
+        config.put("resource", LocalTokenIssuer.CLIENT_ID);
+
+        Path file = Files.createTempFile("policy-enforcer", ".json");
+        file.toFile().deleteOnExit();
+        objectMapper.writeValue(file.toFile(), config);
+        return file;
+    }
+
+    private static List<UUID> seed(StudentRepository studentRepository, int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        List<Student> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batch.add(Student.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + (i % 997))
+                    .email("student" + i + "@loadtest.local")
+                    .build());
+            if (batch.size() == 500 || i == count - 1) {
+                studentRepository.saveAll(batch).forEach(student -> ids.add(student.getId()));
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Fires requests on schedule for the given number of seconds, then waits for stragglers.
+     * When more than maxInFlight requests are outstanding the send is counted as dropped rather
+     * than queued, so the client never becomes the bottleneck it is measuring.
+     */
+    void run(long seconds) throws InterruptedException {
+        Random random = new Random(settings.seed);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.ratePerSecond);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long next = System.nanoTime();
+
+        while (next < end) {
+            long now;
+            while ((now = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - now);
+            }
+
+            if (inFlight.get() >= settings.maxInFlight) {
+                dropped.incrementAndGet();
+            } else {
+                fire(workload.pick(random), random, next);
+            }
+
+            next += settings.poissonArrivals
+                    ? (long) (-Math.log(1 - random.nextDouble()) * intervalNanos)
+                    : intervalNanos;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void fire(int operation, Random random, long intendedStart) {
+        inFlight.incrementAndGet();
+        client.sendAsync(workload.request(operation, random), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intendedStart;
+                    recorders[operation].recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+                    String status = error != null ? "error" : String.valueOf(response.statusCode());
+                    statuses.computeIfAbsent(workload.names().get(operation) + " " + status, key -> new AtomicLong())
+                            .incrementAndGet();
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    private void reset() {
+        for (Recorder recorder : recorders) {
+            recorder.reset();
+        }
+        statuses.clear();
+        dropped.set(0);
+    }
+
+    /**
+     * Prints a percentile table and writes a JSON summary plus an HdrHistogram log under
+     * loadtest.output, named after the label so runs from different commits can be compared.
+     */
+    private void report(Instant started, Instant finished) throws Exception {
+        double elapsedSeconds = Duration.between(started, finished).toMillis() / 1000.0;
+        Path directory = Path.of(settings.outputDirectory);
+        Files.createDirectories(directory);
+        String baseName = settings.label + "-" + started.toEpochMilli();
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        PrintStream out = System.out;
+        out.printf("%n%-14s %8s %9s %9s %9s %9s %9s %9s%n", "operation", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        try (PrintStream hlog = new PrintStream(Files.newOutputStream(directory.resolve(baseName + ".hlog")))) {
+            HistogramLogWriter logWriter = new HistogramLogWriter(hlog);
+            logWriter.outputComment("label=" + settings.label);
+            logWriter.outputLogFormatVersion();
+            logWriter.outputStartTime(started.toEpochMilli());
+            logWriter.outputLegend();
+
+            for (int i = 0; i < recorders.length; i++) {
+                String name = workload.names().get(i);
+                Histogram histogram = recorders[i].getIntervalHistogram();
+                histogram.setTag(name);
+                histogram.setStartTimeStamp(started.toEpochMilli());
+                histogram.setEndTimeStamp(finished.toEpochMilli());
+                logWriter.outputIntervalHistogram(histogram);
+
+                Map<String, Object> summary = summarize(histogram, elapsedSeconds);
+                operations.put(name, summary);
+                out.printf("%-14s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(),
+                        summary.get("throughput"), summary.get("p50"), summary.get("p90"), summary.get("p99"),
+                        summary.get("p999"), summary.get("max"));
+            }
+        }
+
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statuses.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> statusCounts.put(entry.getKey(), entry.getValue().get()));
+        out.println("statuses: " + statusCounts + ", dropped: " + dropped.get());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("label", settings.label);
+        result.put("startedAt", started.toString());
+        result.put("elapsedSeconds", elapsedSeconds);
+        result.put("settings", settings.describe());
+        result.put("operations", operations);
+        result.put("statuses", statusCounts);
+        result.put("dropped", dropped.get());
+
+        Path json = directory.resolve(baseName + ".json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(json.toFile(), result);
+        out.println("results written to " + json.toAbsolutePath());
+    }
+
+    private static Map<String, Object> summarize(Histogram histogram, double elapsedSeconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("throughput", histogram.getTotalCount() / elapsedSeconds);
+        summary.put("mean", histogram.getMean() / 1e6);
+        summary.put("p50", histogram.getValueAtPercentile(50) / 1e6);
+        summary.put("p90", histogram.getValueAtPercentile(90) / 1e6);
+        summary.put("p99", histogram.getValueAtPercentile(99) / 1e6);
+        summary.put("p999", histogram.getValueAtPercentile(99.9) / 1e6);
+        summary.put("max", histogram.getMaxValue() / 1e6);
+        return summary;
+    }
+}
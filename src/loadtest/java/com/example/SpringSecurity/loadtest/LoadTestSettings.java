@@ -0,0 +1,54 @@
+package com.example.SpringSecurity.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Harness settings, read from -Dloadtest.* system properties
+ */
+public class LoadTestSettings {
+
+    final double ratePerSecond = doubleProperty("loadtest.rate", 200);
+    final long warmupSeconds = longProperty("loadtest.warmup", 10);
+    final long durationSeconds = longProperty("loadtest.duration", 60);
+    final int students = (int) longProperty("loadtest.students", 10_000);
+    final int maxInFlight = (int) longProperty("loadtest.max-in-flight", 2_000);
+    final boolean poissonArrivals = System.getProperty("loadtest.arrivals", "poisson").equalsIgnoreCase("poisson");
+    final long seed = longProperty("loadtest.seed", 42);
+    final String label = System.getProperty("loadtest.label", "local");
+    final String outputDirectory = System.getProperty("loadtest.output", "target/loadtest");
+    final Map<String, Integer> mix = parseMix(System.getProperty("loadtest.mix",
+            "findAllPaged=35,findById=35,findByIds=10,findAll=2,create=8,patch=10"));
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length == 2 && Integer.parseInt(parts[1].trim()) > 0) {
+                mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        return mix;
+    }
+
+    private static long longProperty(String name, long defaultValue) {
+        return Long.parseLong(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        return Double.parseDouble(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("ratePerSecond", ratePerSecond);
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("durationSeconds", durationSeconds);
+        settings.put("students", students);
+        settings.put("maxInFlight", maxInFlight);
+        settings.put("arrivals", poissonArrivals ? "poisson" : "uniform");
+        settings.put("seed", seed);
+        settings.put("mix", mix);
+        return settings;
+    }
+}
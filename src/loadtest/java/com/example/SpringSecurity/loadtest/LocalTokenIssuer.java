@@ -0,0 +1,221 @@
+package com.example.SpringSecurity.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stand-in for the Keycloak realm used by the service, serving on a local port:
+ * OIDC and UMA discovery, the JWKS, a token endpoint (client credentials and uma-ticket grants,
+ * which is what the policy enforcer calls) and a protection API that registers one resource per
+ * path it is asked about. Every uma-ticket grant is allowed, so enforced paths cost the same
+ * round trips they would against Keycloak without needing policies set up.
+ *
+ * Tokens are signed with a key generated at startup and carry realm_access roles the way
+ * SecurityConfig.jwtAuthenticationConverter expects them.
+ */
+public class LocalTokenIssuer implements AutoCloseable {
+
+    public static final String REALM = "Derrick";
+    public static final String CLIENT_ID = "biggest-api";
+    private static final List<String> METHOD_SCOPES = List.of("GET", "POST", "PUT", "PATCH", "DELETE");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RSAKey signingKey;
+    private final RSASSASigner signer;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final Map<String, String> resources = new ConcurrentHashMap<>();
+
+    public LocalTokenIssuer() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        signer = new RSASSASigner(signingKey);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+
+        String realmPath = "/realms/" + REALM;
+        server.createContext(realmPath + "/.well-known/openid-configuration", exchange -> json(exchange, discovery()));
+        server.createContext(realmPath + "/.well-known/uma2-configuration", exchange -> json(exchange, discovery()));
+        server.createContext(realmPath + "/protocol/openid-connect/certs",
+                exchange -> json(exchange, new JWKSet(signingKey.toPublicJWK()).toJSONObject()));
+        server.createContext(realmPath + "/protocol/openid-connect/token", this::token);
+        server.createContext(realmPath + "/authz/protection/resource_set", this::resourceSet);
+        server.createContext(realmPath + "/authz/protection/permission", exchange -> json(exchange, Map.of("ticket", UUID.randomUUID().toString())));
+        server.start();
+    }
+
+    public String getServerUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String getIssuer() {
+        return getServerUrl() + "/realms/" + REALM;
+    }
+
+    /**
+     * Signs an access token for the given subject
+     * @param subject the sub claim, the service treats it as the user id
+     * @param roles realm roles, ADMIN unlocks updates
+     * @param ttlSeconds lifetime of the token
+     * @return the serialized JWT
+     */
+    public String mint(String subject, List<String> roles, long ttlSeconds) {
+        return sign(baseClaims(subject, roles, ttlSeconds).build());
+    }
+
+    private JWTClaimsSet.Builder baseClaims(String subject, List<String> roles, long ttlSeconds) {
+        Instant now = Instant.now();
+        return new JWTClaimsSet.Builder()
+                .issuer(getIssuer())
+                .subject(subject)
+                .audience("account")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(ttlSeconds)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("typ", "Bearer")
+                .claim("azp", CLIENT_ID)
+                .claim("email", subject + "@loadtest.local")
+                .claim("given_name", "Load")
+                .claim("family_name", "Test")
+                .claim("realm_access", Map.of("roles", roles))
+                .claim("resource_access", Map.of(CLIENT_ID, Map.of("roles", roles)));
+    }
+
+    private String sign(JWTClaimsSet claims) {
+        try {
+            SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+                    .type(JOSEObjectType.JWT)
+                    .keyID(signingKey.getKeyID())
+                    .build(), claims);
+            jwt.sign(signer);
+            return jwt.serialize();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not sign token", e);
+        }
+    }
+
+    /**
+     * An RPT granting every method on every resource registered so far
+     */
+    private String requestingPartyToken() {
+        List<Map<String, Object>> permissions = resources.entrySet().stream()
+                .map(entry -> Map.<String, Object>of("rsid", entry.getKey(), "rsname", entry.getValue(), "scopes", METHOD_SCOPES))
+                .toList();
+        return sign(baseClaims(CLIENT_ID, List.of("ADMIN"), 300)
+                .claim("authorization", Map.of("permissions", permissions))
+                .build());
+    }
+
+    private Map<String, Object> discovery() {
+        String issuer = getIssuer();
+        String openIdConnect = issuer + "/protocol/openid-connect";
+        Map<String, Object> discovery = new LinkedHashMap<>();
+        discovery.put("issuer", issuer);
+        discovery.put("authorization_endpoint", openIdConnect + "/auth");
+        discovery.put("token_endpoint", openIdConnect + "/token");
+        discovery.put("introspection_endpoint", openIdConnect + "/token/introspect");
+        discovery.put("end_session_endpoint", openIdConnect + "/logout");
+        discovery.put("jwks_uri", openIdConnect + "/certs");
+        discovery.put("grant_types_supported", List.of("client_credentials", "urn:ietf:params:oauth:grant-type:uma-ticket"));
+        discovery.put("response_types_supported", List.of("code", "token"));
+        discovery.put("subject_types_supported", List.of("public"));
+        discovery.put("id_token_signing_alg_values_supported", List.of("RS256"));
+        discovery.put("resource_registration_endpoint", issuer + "/authz/protection/resource_set");
+        discovery.put("permission_endpoint", issuer + "/authz/protection/permission");
+        discovery.put("policy_endpoint", issuer + "/authz/protection/uma-policy");
+        return discovery;
+    }
+
+    /**
+     * Resource lookups by uri get a stable id back (or the resource itself when deep=true), lookups by id describe that resource with
+     * every HTTP method as a scope, matching http-method-as-scope in policy-enforcer.json
+     */
+    private void resourceSet(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        if (!"resource_set".equals(id)) {
+            json(exchange, resource(id, resources.getOrDefault(id, "/")));
+            return;
+        }
+
+        String uri = queryParameter(exchange, "uri");
+        if (uri == null) {
+            json(exchange, List.copyOf(resources.keySet()));
+            return;
+        }
+        String resourceId = UUID.nameUUIDFromBytes(uri.getBytes(StandardCharsets.UTF_8)).toString();
+        resources.put(resourceId, uri);
+        json(exchange, "true".equals(queryParameter(exchange, "deep")) ? List.of(resource(resourceId, uri)) : List.of(resourceId));
+    }
+
+    private Map<String, Object> resource(String id, String uri) {
+        Map<String, Object> resource = new LinkedHashMap<>();
+        resource.put("_id", id);
+        resource.put("name", uri);
+        resource.put("uris", List.of(uri));
+        resource.put("resource_scopes", METHOD_SCOPES.stream().map(scope -> Map.of("name", scope)).toList());
+        return resource;
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0 && pair.substring(0, separator).equals(name)) {
+                return URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("access_token", form.contains("uma-ticket") ? requestingPartyToken() : mint(CLIENT_ID, List.of("ADMIN"), 300));
+        token.put("token_type", "Bearer");
+        token.put("expires_in", 300);
+        json(exchange, token);
+    }
+
+    private void json(HttpExchange exchange, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
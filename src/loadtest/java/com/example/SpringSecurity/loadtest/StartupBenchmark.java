@@ -0,0 +1,322 @@
+package com.example.SpringSecurity.loadtest;
+
+import com.example.SpringSecurity.SpringSecurityApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures time to first request: how long a freshly launched JVM takes until /actuator/health/readiness
+ * reports UP and an authenticated GET /findAll?paginate=true then answers 200. That includes JVM startup,
+ * the Spring context, Tomcat, any warm-up, the first JWT (issuer discovery and JWKS download) and the first
+ * query. The first startup.requests requests after readiness are timed as well, they show what a warm-up saves.
+ *
+ * Every run is a new JVM against a file H2 database and a {@link LocalTokenIssuer}, so it needs neither
+ * Postgres nor Keycloak. The schema is created once before the runs, like a deployed database.
+ *
+ * Modes, selected with -Dstartup.modes (default,fast-startup,warmup,aot,cds):
+ * default       the packaged configuration, Flyway checks the migrations are applied
+ * fast-startup  application-fast-startup.yml
+ * warmup        fast-startup with student.warmup.enabled, readiness waits for WarmupRunner
+ * aot           fast-startup on the Spring AOT initializers, needs a build with -Paot
+ * cds           fast-startup with the AppCDS archive, needs a build with -Pcds
+ * Modes whose build output is missing are skipped.
+ *
+ * Run with: ./mvnw -Paot,cds,startup-benchmark verify -DskipTests -Dstartup.runs=5 -Dstartup.label=<commit>
+ */
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+    private static final String AOT_INITIALIZER =
+            SpringSecurityApplication.class.getName().replace('.', '/') + "__ApplicationContextInitializer.class";
+    private static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final List<String> modes = List.of(System.getProperty("startup.modes", "default,fast-startup,warmup,aot,cds").split(","));
+    private final int runs = Integer.parseInt(System.getProperty("startup.runs", "5"));
+    private final int requests = Math.max(1, Integer.parseInt(System.getProperty("startup.requests", "20")));
+    private final String label = System.getProperty("startup.label", "local");
+    private final Path outputDirectory = Path.of(System.getProperty("startup.output", "target/startup"));
+    private final Path cdsDirectory = Path.of(System.getProperty("startup.cds-directory", "target/cds"));
+    private final List<String> extraJvmArguments = Arrays.stream(System.getProperty("startup.jvm-args", "").split(" "))
+            .filter(argument -> !argument.isBlank())
+            .toList();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        new StartupBenchmark().run();
+    }
+
+    void run() throws Exception {
+        Instant started = Instant.now();
+        Path logs = outputDirectory.resolve("logs");
+        Files.createDirectories(logs);
+        Path database = Files.createTempDirectory("startup-benchmark");
+
+        try (LocalTokenIssuer issuer = new LocalTokenIssuer()) {
+            Path policyConfig = LoadTestHarness.writePolicyEnforcerConfig(issuer);
+            String token = issuer.mint("startup-benchmark", List.of("ADMIN", "USER"), 3600);
+            List<String> common = List.of(
+                    "--spring.datasource.url=jdbc:h2:file:" + database.resolve("students").toAbsolutePath() + ";MODE=PostgreSQL",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "--spring.security.oauth2.resource-server.jwt.issuer-uri=" + issuer.getIssuer(),
+                    "--security.policy-enforcer.config=" + policyConfig.toUri(),
+                    "--storage.location=" + database.resolve("files").toAbsolutePath(),
+                    "--logging.level.root=WARN",
+                    "--logging.level." + SpringSecurityApplication.class.getName() + "=INFO",
+                    "--logging.level.com.example.SpringSecurity.warmup=INFO",
+                    "--spring.main.banner-mode=off");
+
+            // runs the migrations, the measured runs find the schema in place
+            Process schema = launch(List.of("-Dspring.context.exit=onRefresh"), classpath(), common,
+                    List.of(), logs.resolve("schema.log"));
+            if (!schema.waitFor(2, TimeUnit.MINUTES) || schema.exitValue() != 0) {
+                throw new IllegalStateException("Creating the schema failed, see " + logs.resolve("schema.log"));
+            }
+
+            Map<String, Object> results = new LinkedHashMap<>();
+            PrintStream out = System.out;
+            out.printf("%n%-14s %5s %10s %10s %10s %10s %14s %12s %12s%n", "mode", "runs", "min ms", "median ms",
+                    "max ms", "ready ms", "spring s (med)", "first req ms", "mean req ms");
+            for (String mode : modes) {
+                String name = mode.trim();
+                List<String> jvmArguments = new ArrayList<>(extraJvmArguments);
+                String classpath = classpath();
+                List<String> arguments = new ArrayList<>();
+                switch (name) {
+                    case "default" -> arguments.add("--spring.jpa.hibernate.ddl-auto=update");
+                    case "fast-startup" -> arguments.add("--spring.profiles.active=fast-startup");
+                    case "warmup" -> {
+                        arguments.add("--spring.profiles.active=fast-startup");
+                        arguments.add("--student.warmup.enabled=true");
+                    }
+                    case "aot" -> {
+                        if (getClass().getClassLoader().getResource(AOT_INITIALIZER) == null) {
+                            out.printf("%-14s skipped, build with -Paot%n", name);
+                            continue;
+                        }
+                        jvmArguments.add("-Dspring.aot.enabled=true");
+                        arguments.add("--spring.profiles.active=fast-startup");
+                    }
+                    case "cds" -> {
+                        Path archive = cdsDirectory.resolve("application.jsa");
+                        Path jar = cdsJar();
+                        if (!Files.exists(archive) || jar == null) {
+                            out.printf("%-14s skipped, build with -Pcds%n", name);
+                            continue;
+                        }
+                        jvmArguments.add("-XX:SharedArchiveFile=" + archive);
+                        // the archived class path first, the H2 driver appended after it
+                        classpath = jar + File.pathSeparator + h2Jar();
+                        arguments.add("--spring.profiles.active=fast-startup");
+                    }
+                    default -> throw new IllegalArgumentException("Unknown startup mode " + name);
+                }
+
+                List<Map<String, Object>> samples = new ArrayList<>();
+                for (int run = 1; run <= runs; run++) {
+                    samples.add(measure(jvmArguments, classpath, common, arguments, token,
+                            logs.resolve(name + "-" + run + ".log")));
+                }
+                Map<String, Object> summary = summarize(samples);
+                summary.put("jvmArguments", jvmArguments);
+                summary.put("arguments", arguments);
+                summary.put("runs", samples);
+                results.put(name, summary);
+                out.printf("%-14s %5d %10d %10d %10d %10d %14.2f %12d %12.2f%n", name, runs, summary.get("minMs"),
+                        summary.get("medianMs"), summary.get("maxMs"), summary.get("medianReadyMs"),
+                        summary.get("medianSpringSeconds"), summary.get("medianFirstRequestMs"),
+                        summary.get("medianMeanRequestMs"));
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("label", label);
+            report.put("startedAt", started.toString());
+            report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            report.put("javaVersion", System.getProperty("java.version"));
+            report.put("modes", results);
+            Path json = outputDirectory.resolve(label + "-" + started.toEpochMilli() + ".json");
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(json.toFile(), report);
+            out.println("results written to " + json.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Launches the service, polls readiness until it is UP, then times the first requests
+     */
+    private Map<String, Object> measure(List<String> jvmArguments, String classpath, List<String> common,
+                                        List<String> arguments, String token, Path log) throws Exception {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(arguments);
+        withPort.add("--server.port=" + port);
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port
+                        + "/api/v1/students/findAll?paginate=true&size=1"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        long launched = System.nanoTime();
+        Process process = launch(jvmArguments, classpath, common, withPort, log);
+        try {
+            long ready = awaitReadiness(process, readiness, launched, log);
+            long[] times = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                long sent = System.nanoTime();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                times[i] = System.nanoTime() - sent;
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Request " + (i + 1) + " answered " + response.statusCode() + ", see " + log);
+                }
+            }
+            Map<String, Object> sample = new LinkedHashMap<>();
+            sample.put("readyMs", TimeUnit.NANOSECONDS.toMillis(ready - launched));
+            sample.put("firstResponseMs", TimeUnit.NANOSECONDS.toMillis(ready - launched + times[0]));
+            sample.put("firstRequestMs", TimeUnit.NANOSECONDS.toMillis(times[0]));
+            sample.put("meanRequestMs", Arrays.stream(times).average().orElse(0) / 1_000_000d);
+            sample.put("springSeconds", springSeconds(process, log));
+            return sample;
+        } finally {
+            stop(process);
+        }
+    }
+
+    /**
+     * Polls every 50 ms, faster polling would run into the per address rate limit
+     * @return System.nanoTime() when readiness first answered 200
+     */
+    private long awaitReadiness(Process process, HttpRequest readiness, long launched, Path log) throws Exception {
+        while (System.nanoTime() - launched < TIMEOUT_NANOS) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The service exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                HttpResponse<Void> response = client.send(readiness, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return System.nanoTime();
+                }
+                if (response.statusCode() != 503) {
+                    throw new IllegalStateException("Readiness answered " + response.statusCode() + ", see " + log);
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("The service was not ready within two minutes, see " + log);
+    }
+
+    private static Process launch(List<String> jvmArguments, String classpath, List<String> common,
+                                  List<String> arguments, Path log) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArguments);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(SpringSecurityApplication.class.getName());
+        command.addAll(common);
+        command.addAll(arguments);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    /**
+     * Reads "Started ... in x seconds" from the log, the line may be written just after the first response
+     */
+    private static Double springSeconds(Process process, Path log) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            Matcher matcher = STARTED.matcher(Files.readString(log, StandardCharsets.UTF_8));
+            if (matcher.find()) {
+                return Double.parseDouble(matcher.group(1));
+            }
+            if (!process.isAlive()) {
+                break;
+            }
+            Thread.sleep(20);
+        }
+        return null;
+    }
+
+    private static Map<String, Object> summarize(List<Map<String, Object>> samples) {
+        long[] firstResponse = samples.stream().mapToLong(sample -> (Long) sample.get("firstResponseMs")).sorted().toArray();
+        long[] firstRequest = samples.stream().mapToLong(sample -> (Long) sample.get("firstRequestMs")).sorted().toArray();
+        long[] ready = samples.stream().mapToLong(sample -> (Long) sample.get("readyMs")).sorted().toArray();
+        double[] meanRequest = samples.stream().mapToDouble(sample -> (Double) sample.get("meanRequestMs")).sorted().toArray();
+        double[] spring = samples.stream().map(sample -> (Double) sample.get("springSeconds"))
+                .filter(seconds -> seconds != null).mapToDouble(Double::doubleValue).sorted().toArray();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("minMs", firstResponse[0]);
+        summary.put("medianMs", firstResponse[firstResponse.length / 2]);
+        summary.put("maxMs", firstResponse[firstResponse.length - 1]);
+        summary.put("medianReadyMs", ready[ready.length / 2]);
+        summary.put("medianFirstRequestMs", firstRequest[firstRequest.length / 2]);
+        summary.put("medianMeanRequestMs", meanRequest[meanRequest.length / 2]);
+        summary.put("medianSpringSeconds", spring.length == 0 ? Double.NaN : spring[spring.length / 2]);
+        return summary;
+    }
+
+    private static String classpath() {
+        return System.getProperty("java.class.path");
+    }
+
+    private Path cdsJar() throws IOException {
+        if (!Files.isDirectory(cdsDirectory)) {
+            return null;
+        }
+        try (var files = Files.list(cdsDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("-cds.jar")).findFirst().orElse(null);
+        }
+    }
+
+    private static String h2Jar() {
+        return Arrays.stream(classpath().split(File.pathSeparator))
+                .filter(entry -> Path.of(entry).getFileName().toString().startsWith("h2-"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No H2 driver on the class path"));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.SpringSecurity.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Weighted mix of StudentController calls against seeded students
+ */
+public class Workload {
+
+    private final String baseUrl;
+    private final String token;
+    private final List<UUID> ids;
+    private final List<String> names = new ArrayList<>();
+    private final List<Function<Random, HttpRequest>> operations = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    public Workload(String baseUrl, String token, List<UUID> ids, Map<String, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.ids = ids;
+
+        cumulativeWeights = new int[mix.size()];
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            names.add(entry.getKey());
+            operations.add(operation(entry.getKey()));
+            total += entry.getValue();
+            cumulativeWeights[names.size() - 1] = total;
+        }
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * @return the index of the next operation to run, drawn by weight
+     */
+    public int pick(Random random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    public HttpRequest request(int operation, Random random) {
+        return operations.get(operation).apply(random);
+    }
+
+    private Function<Random, HttpRequest> operation(String name) {
+        return switch (name) {
+            case "findAll" -> random -> get("/findAll");
+            case "findAllPaged" -> random -> get("/findAll?paginate=true&size=20&sortBy=lastName&sortDir=asc&page="
+                    + (1 + random.nextInt(50)));
+            case "findById" -> random -> get("/" + randomId(random));
+            case "findByIds" -> random -> {
+                StringJoiner joiner = new StringJoiner(",");
+                for (int i = 0; i < 50; i++) {
+                    joiner.add(randomId(random).toString());
+                }
+                return get("/findByIds?ids=" + joiner);
+            };
+            // seeded last names are Last0..Last996, searched by a prefix of one of them
+            case "search" -> random -> get("/search?size=20&q=last" + random.nextInt(997) / 10);
+            case "create" -> random -> {
+                int n = random.nextInt(1_000_000);
+                return builder("/createStudent")
+                        .header("Content-Type", "application/json")
+                        .header("Idempotency-Key", new UUID(random.nextLong(), random.nextLong()).toString())
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"firstName\":\"Load" + n + "\",\"lastName\":\"Test\",\"email\":\"load" + n + "@loadtest.local\"}"))
+                        .build();
+            };
+            case "patch" -> random -> send("PATCH", "/patchStudent/" + randomId(random),
+                    "{\"firstName\":\"Patched" + random.nextInt(1_000) + "\"}");
+            default -> throw new IllegalArgumentException("Unknown operation " + name);
+        };
+    }
+
+    private UUID randomId(Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return builder(path)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+}
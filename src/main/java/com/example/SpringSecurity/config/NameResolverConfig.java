@@ -0,0 +1,25 @@
+package com.example.SpringSecurity.config;
+
+import com.example.SpringSecurity.student.Student;
+import com.example.SpringSecurity.utility.EntityNameResolver;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Display name resolvers, one per entity that is shown by name elsewhere
+ */
+@Configuration
+public class NameResolverConfig {
+
+    @Bean
+    public EntityNameResolver<Student> studentNameResolver(EntityManager entityManager,
+                                                           @Value("${student.names.cache-size:1000}") long cacheSize,
+                                                           @Value("${student.names.ttl-seconds:300}") long ttlSeconds) {
+        return new EntityNameResolver<>(entityManager, Student.class, cacheSize, Duration.ofSeconds(ttlSeconds),
+                "firstName", "lastName");
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.SpringSecurity.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Statement level metrics from Hibernate statistics, complementing the hikaricp.* pool metrics
+ * (acquire time, active, idle and pending connections) that actuator already publishes.
+ * Hibernate only records these when hibernate.generate_statistics is on, which the perf profile leaves off.
+ */
+@Configuration
+public class PerformanceMetricsConfig {
+
+    @Bean
+    public MeterBinder statementCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            if (!statistics.isStatisticsEnabled()) {
+                return;
+            }
+            FunctionCounter.builder("jdbc.statements.prepared", statistics, Statistics::getPrepareStatementCount)
+                    .description("JDBC statements prepared by Hibernate")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.query.plan.cache", statistics, Statistics::getQueryPlanCacheHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.query.plan.cache", statistics, Statistics::getQueryPlanCacheMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("hibernate.query.plan.cache.hit.ratio", statistics, PerformanceMetricsConfig::planCacheHitRatio)
+                    .description("Share of HQL/criteria lookups served from the query plan cache")
+                    .register(registry);
+        };
+    }
+
+    private static double planCacheHitRatio(Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long total = hits + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
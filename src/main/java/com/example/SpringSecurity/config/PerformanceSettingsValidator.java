@@ -0,0 +1,81 @@
+package com.example.SpringSecurity.config;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Logs a warning at startup for every setting known to hurt throughput, see application-perf.yml for the recommended values
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class PerformanceSettingsValidator {
+
+    private final Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void validate() {
+        List<String> warnings = check();
+        warnings.forEach(warning -> log.warn("Performance setting: {}", warning));
+    }
+
+    List<String> check() {
+        List<String> warnings = new ArrayList<>();
+
+        if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+            warnings.add("spring.jpa.show-sql is on, every statement is written to stdout synchronously");
+        }
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            warnings.add("spring.jpa.open-in-view is on, connections are held for the whole request");
+        }
+        String ddlAuto = environment.getProperty("spring.jpa.hibernate.ddl-auto", "none");
+        if (ddlAuto.equals("update") || ddlAuto.startsWith("create")) {
+            warnings.add("spring.jpa.hibernate.ddl-auto=" + ddlAuto + " diffs the schema on every start");
+        }
+        if (environment.getProperty("spring.jpa.properties.hibernate.generate_statistics", Boolean.class, false)) {
+            warnings.add("hibernate.generate_statistics is on, every session collects and logs statistics");
+        }
+        int batchSize = environment.getProperty("spring.jpa.properties.hibernate.jdbc.batch_size", Integer.class, 0);
+        if (batchSize <= 1) {
+            warnings.add("hibernate.jdbc.batch_size is not set, inserts and updates are sent one statement at a time");
+        }
+        if (batchSize > 1 && !environment.getProperty("spring.jpa.properties.hibernate.order_inserts", Boolean.class, false)) {
+            warnings.add("hibernate.order_inserts is off, mixed inserts break JDBC batches");
+        }
+
+        String url = environment.getProperty("spring.datasource.url", "");
+        if (url.startsWith("jdbc:postgresql:")) {
+            boolean rewrite = url.contains("reWriteBatchedInserts=true")
+                    || environment.getProperty("spring.datasource.hikari.data-source-properties.reWriteBatchedInserts", Boolean.class, false);
+            if (!rewrite) {
+                warnings.add("reWriteBatchedInserts is off, the Postgres driver sends batched inserts row by row");
+            }
+            if (environment.getProperty("spring.datasource.hikari.data-source-properties.prepareThreshold", Integer.class, 5) <= 0) {
+                warnings.add("prepareThreshold <= 0 disables server side prepared statements");
+            }
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        if (poolSize > cores * 4) {
+            warnings.add("spring.datasource.hikari.maximum-pool-size=" + poolSize + " is far above " + cores
+                    + " cores, extra connections queue inside Postgres instead of the pool");
+        }
+        long connectionTimeout = environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30000L);
+        if (connectionTimeout > 5000) {
+            warnings.add("spring.datasource.hikari.connection-timeout=" + connectionTimeout + "ms lets requests wait long on an exhausted pool");
+        }
+        String sqlLogging = environment.getProperty("logging.level.org.hibernate.SQL", "");
+        if (sqlLogging.equalsIgnoreCase("debug") || sqlLogging.equalsIgnoreCase("trace")) {
+            warnings.add("logging.level.org.hibernate.SQL=" + sqlLogging + " logs every statement");
+        }
+        return warnings;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.SpringSecurity.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "student.datasource")
+@Data
+public class ReplicaProperties {
+
+    /**
+     * Read replicas, routing is only enabled when at least one is configured
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * round_robin or least_connections
+     */
+    private ReplicaRoutingDataSource.Selection replicaSelection = ReplicaRoutingDataSource.Selection.ROUND_ROBIN;
+
+    /**
+     * How long reads of a caller keep going to the primary after that caller wrote
+     */
+    private long readYourWritesWindowMs = 2000;
+
+    /**
+     * Replicas lagging more than this are taken out of rotation
+     */
+    private long maxReplicaLagMs = 1000;
+
+    private long lagCheckIntervalMs = 5000;
+
+    /**
+     * Returns the replication lag in milliseconds, blank to disable the check
+     */
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
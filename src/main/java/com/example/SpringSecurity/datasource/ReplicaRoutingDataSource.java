@@ -0,0 +1,165 @@
+package com.example.SpringSecurity.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica pool and everything else to the primary.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy, the read-only flag of a transaction is only
+ * known once the transaction has begun, which is after the transaction manager asked for a connection.
+ *
+ * Reads fall back to the primary when the caller wrote within the read-your-writes window, or when
+ * no replica is within the allowed lag.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Selection selection;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, Selection selection,
+                                    Duration readYourWritesWindow, String lagQuery, long maxLagMs) {
+        this.selection = selection;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(100_000)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicas.add(replica);
+            targets.put(replica.key, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String caller = currentCaller();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (caller != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                recentWriters.put(caller, Boolean.TRUE);
+            }
+            return PRIMARY;
+        }
+        if (caller != null && recentWriters.getIfPresent(caller) != null) {
+            return PRIMARY;
+        }
+        Replica replica = selectReplica();
+        return replica == null ? PRIMARY : replica.key;
+    }
+
+    private Replica selectReplica() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (selection == Selection.LEAST_CONNECTIONS) {
+            Replica best = null;
+            int fewest = Integer.MAX_VALUE;
+            for (Replica replica : healthy) {
+                int active = replica.activeConnections();
+                if (active < fewest) {
+                    fewest = active;
+                    best = replica;
+                }
+            }
+            if (best != null) {
+                return best;
+            }
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    /**
+     * Measures the replication lag of every replica with the lag query, replicas behind by more than the
+     * allowed lag, or that cannot be reached, stop receiving reads until the next check
+     */
+    public void checkReplicaLag() {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return;
+        }
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                long lagMs = resultSet.next() ? resultSet.getLong(1) : 0;
+                boolean healthy = lagMs <= maxLagMs;
+                if (healthy != replica.healthy) {
+                    log.warn("Replica {} is now {} (lag {} ms)", replica.key, healthy ? "in rotation" : "out of rotation", lagMs);
+                }
+                replica.healthy = healthy;
+            } catch (Exception e) {
+                if (replica.healthy) {
+                    log.warn("Replica {} is now out of rotation. Message -> {}", replica.key, e.getMessage());
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    private static String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    private static final class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+
+        private int activeConnections() {
+            if (dataSource instanceof HikariDataSource hikari) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                return pool == null ? 0 : pool.getActiveConnections();
+            }
+            return 0;
+        }
+    }
+}
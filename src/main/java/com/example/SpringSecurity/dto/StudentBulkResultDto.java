@@ -0,0 +1,23 @@
+package com.example.SpringSecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of a bulk lookup by ids, students are in request order and ids that matched nothing are listed in missing
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StudentBulkResultDto {
+
+    private List<StudentDto> students;
+
+    private List<UUID> missing;
+}
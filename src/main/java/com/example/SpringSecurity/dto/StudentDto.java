@@ -22,4 +22,9 @@ public class StudentDto {
     private String lastName;
 
     private String email;
+
+    /**
+     * Version the client last read, when present updates and deletes fail with 409 if the row has moved on
+     */
+    private Long version;
 }
@@ -0,0 +1,38 @@
+package com.example.SpringSecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress of a student export, download is set once the file is complete
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StudentExportJobDto {
+
+    private UUID id;
+
+    private String status;
+
+    private List<String> fields;
+
+    private long exportedRows;
+
+    private long sizeBytes;
+
+    private String failure;
+
+    private String download;
+
+    private ZonedDateTime createdAt;
+
+    private ZonedDateTime updatedAt;
+}
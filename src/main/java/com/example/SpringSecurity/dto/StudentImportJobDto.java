@@ -0,0 +1,43 @@
+package com.example.SpringSecurity.dto;
+
+import com.example.SpringSecurity.utility.Pagination;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of a CSV import, errors holds one page of the rejected rows
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StudentImportJobDto {
+
+    private UUID id;
+
+    private String fileName;
+
+    private String status;
+
+    /**
+     * Last spreadsheet row that is committed, a resumed import continues after it
+     */
+    private long committedRow;
+
+    private long imported;
+
+    private long rejected;
+
+    private String failure;
+
+    private ZonedDateTime createdAt;
+
+    private ZonedDateTime updatedAt;
+
+    private Pagination errors;
+}
@@ -0,0 +1,32 @@
+package com.example.SpringSecurity.events;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport for a single node and for tests, listeners are called on the publishing thread
+ */
+@Slf4j
+public class InMemoryStudentChangeTransport implements StudentChangeTransport {
+
+    private final List<Consumer<List<StudentChange>>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<StudentChange> changes) {
+        for (Consumer<List<StudentChange>> listener : listeners) {
+            try {
+                listener.accept(changes);
+            } catch (Exception e) {
+                log.error("Exception Occured! in student change listener. Message -> {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<List<StudentChange>> listener) {
+        listeners.add(listener);
+    }
+}
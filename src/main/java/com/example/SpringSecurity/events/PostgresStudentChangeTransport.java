@@ -0,0 +1,200 @@
+package com.example.SpringSecurity.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport over Postgres LISTEN/NOTIFY. Batches are encoded as
+ * {@code origin|C:<id>,U:<id>,D:<id>,B:} and split to stay under the 8000 byte NOTIFY payload limit.
+ * A dedicated connection listens on the channel and polls for notifications.
+ *
+ * Notifications sent while the connection is down are lost, so each successful LISTEN is followed by a
+ * BULK change that drops every cached student entry. A payload that cannot be read does the same.
+ */
+@Slf4j
+public class PostgresStudentChangeTransport implements StudentChangeTransport, SmartLifecycle {
+
+    static final String CHANNEL = "student_changes";
+    /**
+     * Origin of the BULK changes raised by the transport itself, never equal to a node id
+     */
+    static final String RESYNC_ORIGIN = "student-change-listener";
+    private static final int MAX_PAYLOAD_CHARS = 7000;
+    private static final int POLL_TIMEOUT_MS = 500;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Consumer<List<StudentChange>>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresStudentChangeTransport(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void publish(List<StudentChange> changes) {
+        for (String payload : encode(changes)) {
+            jdbcTemplate.queryForList("select pg_notify(?, ?)", CHANNEL, payload);
+        }
+    }
+
+    /**
+     * @return one payload per NOTIFY, each under the payload limit
+     */
+    static List<String> encode(List<StudentChange> changes) {
+        List<String> payloads = new ArrayList<>();
+        if (changes.isEmpty()) {
+            return payloads;
+        }
+        String origin = changes.get(0).getOrigin();
+        StringBuilder payload = new StringBuilder(origin).append('|');
+        int emptyLength = payload.length();
+        for (StudentChange change : changes) {
+            if (payload.length() > MAX_PAYLOAD_CHARS) {
+                payloads.add(payload.toString());
+                payload.setLength(emptyLength);
+            }
+            payload.append(change.getChangeType().name().charAt(0)).append(':');
+            if (change.getStudentId() != null) {
+                payload.append(change.getStudentId());
+            }
+            payload.append(',');
+        }
+        if (payload.length() > emptyLength) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    @Override
+    public void subscribe(Consumer<List<StudentChange>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "student-change-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for student changes on channel {}", CHANNEL);
+                resync();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        onNotification(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Exception Occured! on student change listener, reconnecting. Message -> {}", e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Changes missed while not listening are unknown, every node drops its student caches
+     */
+    void resync() {
+        dispatch(List.of(new StudentChange(null, StudentChangeType.BULK, RESYNC_ORIGIN)));
+    }
+
+    void onNotification(String payload) {
+        List<StudentChange> changes;
+        try {
+            changes = decode(payload);
+        } catch (RuntimeException e) {
+            log.warn("Unreadable student change payload, dropping student caches. Message -> {}", e.getMessage());
+            resync();
+            return;
+        }
+        dispatch(changes);
+    }
+
+    private void dispatch(List<StudentChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (Consumer<List<StudentChange>> listener : listeners) {
+            try {
+                listener.accept(changes);
+            } catch (Exception e) {
+                log.error("Exception Occured! in student change listener. Message -> {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException when an id is not a UUID
+     */
+    static List<StudentChange> decode(String payload) {
+        List<StudentChange> changes = new ArrayList<>();
+        int separator = payload.indexOf('|');
+        if (separator < 0) {
+            return changes;
+        }
+        String origin = payload.substring(0, separator);
+        for (String entry : payload.substring(separator + 1).split(",")) {
+            if (entry.length() < 2) {
+                continue;
+            }
+            StudentChangeType type = switch (entry.charAt(0)) {
+                case 'C' -> StudentChangeType.CREATED;
+                case 'U' -> StudentChangeType.UPDATED;
+                case 'D' -> StudentChangeType.DELETED;
+                default -> StudentChangeType.BULK;
+            };
+            String id = entry.substring(2);
+            changes.add(new StudentChange(id.isEmpty() ? null : UUID.fromString(id), type, origin));
+        }
+        return changes;
+    }
+}
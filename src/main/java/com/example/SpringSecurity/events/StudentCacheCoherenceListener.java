@@ -0,0 +1,48 @@
+package com.example.SpringSecurity.events;
+
+import com.example.SpringSecurity.student.Student;
+import com.example.SpringSecurity.student.StudentQueryCache;
+import com.example.SpringSecurity.utility.EntityNameResolver;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops this node's student caches when another node reports a change.
+ * Changes made on this node are skipped for the query cache, the write path already invalidated it locally.
+ * Cached names are evicted for every change, the write path does not touch them.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class StudentCacheCoherenceListener {
+
+    private final StudentChangeTransport transport;
+    private final StudentChangePublisher publisher;
+    private final StudentQueryCache studentQueryCache;
+    private final EntityNameResolver<Student> studentNameResolver;
+
+    @PostConstruct
+    public void subscribe() {
+        transport.subscribe(this::onChanges);
+    }
+
+    void onChanges(List<StudentChange> changes) {
+        for (StudentChange change : changes) {
+            if (change.getStudentId() == null) {
+                studentNameResolver.evictAll();
+            } else if (change.getChangeType() != StudentChangeType.CREATED) {
+                studentNameResolver.evict(change.getStudentId());
+            }
+        }
+
+        boolean remote = changes.stream().anyMatch(change -> !publisher.getNodeId().equals(change.getOrigin()));
+        if (remote) {
+            log.debug("Invalidating student caches for {} remote changes", changes.size());
+            studentQueryCache.invalidate();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.SpringSecurity.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Message carried by a StudentChangeTransport, one per changed student after coalescing
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StudentChange {
+
+    private UUID studentId;
+
+    private StudentChangeType changeType;
+
+    private String origin;
+}
@@ -0,0 +1,42 @@
+package com.example.SpringSecurity.events;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Transactional outbox row, written in the same transaction as the student change it describes
+ * and relayed to the other nodes by StudentChangePublisher after commit.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "student_change_event", indexes = @Index(name = "student_change_event_published_idx", columnList = "published, id"))
+public class StudentChangeEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private UUID studentId;
+
+    @Enumerated(EnumType.STRING)
+    private StudentChangeType changeType;
+
+    /**
+     * Node that made the change, it relays its own rows and skips them when they come back
+     */
+    private String origin;
+
+    private boolean published;
+
+    @CreationTimestamp
+    private ZonedDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+package com.example.SpringSecurity.events;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StudentChangeEventRepository extends JpaRepository<StudentChangeEvent, Long> {
+
+    List<StudentChangeEvent> findTop500ByPublishedFalseAndOriginOrderByIdAsc(String origin);
+
+    /**
+     * Rows left behind by a node that died between commit and relay
+     */
+    List<StudentChangeEvent> findTop500ByPublishedFalseAndCreatedAtBeforeOrderByIdAsc(ZonedDateTime before);
+
+    @Transactional
+    @Modifying
+    @Query("update StudentChangeEvent e set e.published = true where e.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("delete from StudentChangeEvent e where e.published = true and e.createdAt < :before")
+    int deletePublishedBefore(@Param("before") ZonedDateTime before);
+}
@@ -0,0 +1,133 @@
+package com.example.SpringSecurity.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Records student changes in the outbox table and relays them to the other nodes.
+ *
+ * record() must be called inside the transaction of the write, so the outbox row commits or rolls back with it.
+ * After commit the relay is woken up, it reads this node's unpublished rows, coalesces them per student id
+ * and publishes them as one batch. A slower sweep relays rows orphaned by a node that stopped before relaying.
+ */
+@Component
+@Slf4j
+public class StudentChangePublisher {
+
+    private final StudentChangeEventRepository changeEventRepository;
+    private final StudentChangeTransport transport;
+    private final String nodeId;
+    private final long orphanAfterSeconds;
+    private final long retentionMinutes;
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    public StudentChangePublisher(StudentChangeEventRepository changeEventRepository,
+                                  StudentChangeTransport transport,
+                                  @Value("${student.events.node-id:}") String nodeId,
+                                  @Value("${student.events.orphan-after-seconds:30}") long orphanAfterSeconds,
+                                  @Value("${student.events.retention-minutes:60}") long retentionMinutes) {
+        this.changeEventRepository = changeEventRepository;
+        this.transport = transport;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.orphanAfterSeconds = orphanAfterSeconds;
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Writes an outbox row for the change and schedules the relay once the surrounding transaction commits
+     * @param studentId the id of the changed student, null for BULK
+     * @param changeType the kind of change
+     */
+    public void record(UUID studentId, StudentChangeType changeType) {
+        changeEventRepository.save(StudentChangeEvent.builder()
+                .studentId(studentId)
+                .changeType(changeType)
+                .origin(nodeId)
+                .build());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.set(true);
+                }
+            });
+        } else {
+            pending.set(true);
+        }
+    }
+
+    /**
+     * Cheap when idle, only touches the database after a commit has flagged pending work
+     */
+    @Scheduled(fixedDelayString = "${student.events.flush-interval-ms:50}")
+    public void flush() {
+        if (pending.getAndSet(false)) {
+            relay(changeEventRepository.findTop500ByPublishedFalseAndOriginOrderByIdAsc(nodeId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${student.events.sweep-interval-ms:10000}")
+    public void sweep() {
+        try {
+            ZonedDateTime now = ZonedDateTime.now();
+            relay(changeEventRepository.findTop500ByPublishedFalseAndCreatedAtBeforeOrderByIdAsc(now.minusSeconds(orphanAfterSeconds)));
+            changeEventRepository.deletePublishedBefore(now.minusMinutes(retentionMinutes));
+        } catch (Exception e) {
+            log.error("Exception Occured! while sweeping the student change outbox. Message -> {}", e.getMessage());
+        }
+    }
+
+    private void relay(List<StudentChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            // orphaned rows keep their origin, so the node that wrote them is still the one that skips them
+            events.stream()
+                    .collect(Collectors.groupingBy(StudentChangeEvent::getOrigin, LinkedHashMap::new, Collectors.toList()))
+                    .forEach((origin, batch) -> transport.publish(coalesce(batch, origin)));
+            changeEventRepository.markPublished(events.stream().map(StudentChangeEvent::getId).toList());
+            if (events.size() == 500) {
+                // more rows are waiting, pick them up on the next tick
+                pending.set(true);
+            }
+        } catch (Exception e) {
+            log.error("Exception Occured! while relaying student changes. Message -> {}", e.getMessage());
+            pending.set(true);
+        }
+    }
+
+    /**
+     * Keeps one change per student id, the latest wins. A BULK change replaces the whole batch.
+     */
+    static List<StudentChange> coalesce(List<StudentChangeEvent> events, String origin) {
+        Map<UUID, StudentChangeType> latest = new LinkedHashMap<>();
+        for (StudentChangeEvent event : events) {
+            if (event.getChangeType() == StudentChangeType.BULK || event.getStudentId() == null) {
+                return List.of(new StudentChange(null, StudentChangeType.BULK, origin));
+            }
+            latest.put(event.getStudentId(), event.getChangeType());
+        }
+        List<StudentChange> changes = new ArrayList<>(latest.size());
+        latest.forEach((id, type) -> changes.add(new StudentChange(id, type, origin)));
+        return changes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.SpringSecurity.events;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries batches of student changes between the nodes of the service.
+ * Delivery is best effort, the outbox table is the durable record.
+ */
+public interface StudentChangeTransport {
+
+    /**
+     * Sends a batch of coalesced changes to every subscribed node, including this one
+     * @param changes the changes to send
+     */
+    void publish(List<StudentChange> changes);
+
+    /**
+     * Registers a listener that is called with each batch received
+     * @param listener the listener
+     */
+    void subscribe(Consumer<List<StudentChange>> listener);
+}
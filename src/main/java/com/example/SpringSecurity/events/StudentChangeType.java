@@ -0,0 +1,12 @@
+package com.example.SpringSecurity.events;
+
+/**
+ * Kind of write recorded in the student change outbox. BULK carries no student id and means
+ * every cached student entry should be dropped.
+ */
+public enum StudentChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    BULK
+}
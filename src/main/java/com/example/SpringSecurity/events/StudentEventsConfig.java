@@ -0,0 +1,26 @@
+package com.example.SpringSecurity.events;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Selects the transport used to spread student changes between nodes, set with student.events.transport
+ */
+@Configuration
+public class StudentEventsConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "student.events.transport", havingValue = "postgres")
+    public StudentChangeTransport postgresStudentChangeTransport(DataSource dataSource) {
+        return new PostgresStudentChangeTransport(dataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "student.events.transport", havingValue = "memory", matchIfMissing = true)
+    public StudentChangeTransport inMemoryStudentChangeTransport() {
+        return new InMemoryStudentChangeTransport();
+    }
+}
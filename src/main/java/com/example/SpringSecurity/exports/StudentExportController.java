@@ -0,0 +1,33 @@
+package com.example.SpringSecurity.exports;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+import static com.example.SpringSecurity.security.SecurityConfig.CONTEXT_PATH;
+
+@RestController
+@RequestMapping(CONTEXT_PATH + "/export")
+@AllArgsConstructor
+public class StudentExportController {
+
+    private final StudentExportService studentExportService;
+
+    @PostMapping
+    public ResponseEntity<ResponseDTO> startExport(@RequestParam(name = "fields", required = false) String fields) {
+        return studentExportService.startExport(fields);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ResponseDTO> getExport(@PathVariable(name = "id") UUID id) {
+        return studentExportService.getExport(id);
+    }
+
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Object> downloadExport(@PathVariable(name = "id") UUID id) {
+        return studentExportService.downloadExport(id);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.SpringSecurity.exports;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * One export of the student table to a gzip CSV file kept by StorageService.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "student_export_job")
+public class StudentExportJob {
+    @Id
+    private UUID id;
+
+    /**
+     * Comma separated StudentDto properties, the columns of the file in order
+     */
+    private String fields;
+
+    /**
+     * Name of the file in StorageService
+     */
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    private StudentExportStatus status;
+
+    private long exportedRows;
+
+    /**
+     * Compressed size of the file
+     */
+    private long sizeBytes;
+
+    @Column(length = 1000)
+    private String failure;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private ZonedDateTime createdAt;
+
+    private ZonedDateTime updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.example.SpringSecurity.exports;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface StudentExportJobRepository extends JpaRepository<StudentExportJob, UUID> {
+
+    /**
+     * Moves updatedAt on for the exports a node is still running
+     */
+    @Transactional
+    @Modifying
+    @Query("update StudentExportJob j set j.updatedAt = :now where j.id in :ids"
+            + " and j.status = com.example.SpringSecurity.exports.StudentExportStatus.RUNNING")
+    int heartbeat(@Param("ids") Collection<UUID> ids, @Param("now") ZonedDateTime now);
+
+    List<StudentExportJob> findByStatusAndUpdatedAtBefore(StudentExportStatus status, ZonedDateTime before);
+
+    /**
+     * @return 0 when the job finished or sent a heartbeat since it was found stale
+     */
+    @Transactional
+    @Modifying
+    @Query("update StudentExportJob j set j.status = com.example.SpringSecurity.exports.StudentExportStatus.FAILED,"
+            + " j.failure = :failure, j.updatedAt = :now where j.id = :id"
+            + " and j.status = com.example.SpringSecurity.exports.StudentExportStatus.RUNNING and j.updatedAt < :before")
+    int failStale(@Param("id") UUID id, @Param("before") ZonedDateTime before, @Param("failure") String failure,
+                  @Param("now") ZonedDateTime now);
+}
@@ -0,0 +1,446 @@
+package com.example.SpringSecurity.exports;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.dto.StudentExportJobDto;
+import com.example.SpringSecurity.storage.StorageException;
+import com.example.SpringSecurity.storage.StorageService;
+import com.example.SpringSecurity.student.StudentFields;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.example.SpringSecurity.logging.LogMarkers.SUCCESS;
+import static com.example.SpringSecurity.security.SecurityConfig.CONTEXT_PATH;
+import static com.example.SpringSecurity.utility.AppUtils.getResponseDTO;
+import static com.example.SpringSecurity.utility.AppUtils.transformToSnake;
+
+/**
+ * Exports the student table to a gzip CSV file in the background.
+ *
+ * The id space is split into equal ranges by its leading 32 bits, random UUIDs spread evenly over them,
+ * and every range is read in parallel through a JDBC cursor (fetchSize) in its own read only, repeatable
+ * read transaction, streaming rows straight into a gzip part file. The parts are then appended to a gzip
+ * member holding the header row, a gzip file may consist of several members, so nothing is decompressed
+ * or held in memory whatever the size of the table.
+ *
+ * Each range is a consistent snapshot, rows changed while the export runs may show up in either state.
+ * Exports run on replicas when they are configured. Only max-concurrent exports run per node at once,
+ * further requests get 429. The file stays in StorageService, nodes that serve downloads of each other's
+ * exports need a shared storage.location. A running export moves its updatedAt on every sweep, one left
+ * RUNNING by a node that stopped is failed once it is stale-after-seconds old.
+ */
+@Service
+@Slf4j
+public class StudentExportService {
+
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final StudentExportJobRepository jobRepository;
+    private final StorageService storageService;
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final ThreadPoolTaskExecutor executor;
+    private final Semaphore running;
+    private final Set<UUID> active = ConcurrentHashMap.newKeySet();
+    private final int parallelism;
+    private final long staleAfterSeconds;
+
+    public StudentExportService(StudentExportJobRepository jobRepository,
+                                StorageService storageService,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${student.export.parallelism:2}") int parallelism,
+                                @Value("${student.export.max-concurrent:2}") int maxConcurrent,
+                                @Value("${student.export.fetch-size:1000}") int fetchSize,
+                                @Value("${student.export.stale-after-seconds:120}") long staleAfterSeconds) {
+        this.jobRepository = jobRepository;
+        this.storageService = storageService;
+        this.parallelism = Math.max(1, parallelism);
+        this.staleAfterSeconds = staleAfterSeconds;
+        this.running = new Semaphore(Math.max(1, maxConcurrent));
+
+        // PostgreSQL only streams with a fetch size inside a transaction, otherwise it reads the whole result
+        this.cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursorTemplate.setFetchSize(fetchSize);
+        this.snapshotTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        snapshotTransaction.setReadOnly(true);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        // one thread per range plus the one assembling the file, for every export allowed to run
+        int threads = Math.max(1, maxConcurrent) * (this.parallelism + 1);
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setThreadNamePrefix("student-export-");
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // exports cut short stay RUNNING until sweep finds them stale
+        executor.shutdown();
+    }
+
+    /**
+     * Sends the heartbeat of the exports running on this node, then fails the RUNNING exports nobody has
+     * sent one for within stale-after-seconds, their node stopped before they finished. Runs at startup too.
+     */
+    @Scheduled(fixedDelayString = "${student.export.sweep-interval-ms:30000}")
+    public void sweep() {
+        try {
+            ZonedDateTime now = ZonedDateTime.now();
+            if (!active.isEmpty()) {
+                jobRepository.heartbeat(List.copyOf(active), now);
+            }
+            ZonedDateTime before = now.minusSeconds(staleAfterSeconds);
+            for (StudentExportJob job : jobRepository.findByStatusAndUpdatedAtBefore(StudentExportStatus.RUNNING, before)) {
+                if (!active.contains(job.getId()) && jobRepository.failStale(job.getId(), before,
+                        "Export was abandoned when its node stopped, start a new one", now) > 0) {
+                    log.warn("Export -> {} was abandoned, marked failed", job.getId());
+                    deleteFiles(job.getFileName());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Exception Occured! while sweeping student exports. Message -> {}", e.getMessage());
+        }
+    }
+
+    /**
+     * This method starts an export of all students
+     * @param fields the StudentDto properties to export, all of them when absent
+     * @return the running job, 202 Accepted, or 429 when max-concurrent exports are running
+     */
+    public ResponseEntity<ResponseDTO> startExport(String fields) {
+        log.debug("Inside start Export ::: Trying to start a student export");
+        ResponseDTO response;
+        try {
+            List<String> selected = StudentFields.parse(fields);
+            if (selected == null) {
+                selected = StudentFields.ALL;
+            }
+            if (!running.tryAcquire()) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many exports running, retry later");
+            }
+            StudentExportJob job;
+            UUID id = UUID.randomUUID();
+            try {
+                job = jobRepository.save(StudentExportJob.builder()
+                        .id(id)
+                        .fields(String.join(",", selected))
+                        .fileName("student-export-" + id + ".csv.gz")
+                        .status(StudentExportStatus.RUNNING)
+                        .updatedAt(ZonedDateTime.now())
+                        .build());
+                List<String> columns = selected;
+                // counted as running from here, sweep must not take a queued export for an abandoned one
+                active.add(id);
+                executor.execute(() -> {
+                    try {
+                        run(id, columns);
+                    } finally {
+                        running.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                running.release();
+                active.remove(id);
+                throw e;
+            }
+            log.info(SUCCESS, "Success! statusCode -> {} and id -> {}", HttpStatus.ACCEPTED, job.getId());
+            response = getResponseDTO("Export started", HttpStatus.ACCEPTED, toDto(job));
+        } catch (ResponseStatusException e) {
+            log.error("Exception Occured! Reason -> {} and Message -> {}", e.getCause(), e.getReason());
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
+        } catch (Exception e) {
+            log.error("Exception Occured! statusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
+            response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.getStatusCode()));
+    }
+
+    /**
+     * This method returns the progress of an export
+     * @param id the job id
+     * @return the job
+     */
+    public ResponseEntity<ResponseDTO> getExport(UUID id) {
+        log.debug("Inside get Export ::: Trying to find student export -> {}", id);
+        ResponseDTO response;
+        try {
+            StudentExportJob job = jobRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No export with id " + id));
+            response = getResponseDTO("Successfully retrieved the export", HttpStatus.OK, toDto(job));
+        } catch (ResponseStatusException e) {
+            log.error("Exception Occured! Reason -> {} and Message -> {}", e.getCause(), e.getReason());
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
+        } catch (Exception e) {
+            log.error("Exception Occured! statusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
+            response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.getStatusCode()));
+    }
+
+    /**
+     * This method streams the file of a completed export
+     * @param id the job id
+     * @return the gzip CSV file, or 409 while the export is not completed
+     */
+    public ResponseEntity<Object> downloadExport(UUID id) {
+        log.debug("Inside download Export ::: Trying to download student export -> {}", id);
+        ResponseDTO response;
+        try {
+            StudentExportJob job = jobRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No export with id " + id));
+            if (job.getStatus() != StudentExportStatus.COMPLETED) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Export is " + job.getStatus().name().toLowerCase(Locale.ROOT));
+            }
+            Resource file = storageService.loadAsResource(job.getFileName());
+            log.info(SUCCESS, "Success! statusCode -> {} and id -> {}", HttpStatus.OK, id);
+            return ResponseEntity.ok()
+                    .contentType(APPLICATION_GZIP)
+                    .contentLength(job.getSizeBytes())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                    .body(file);
+        } catch (ResponseStatusException e) {
+            log.error("Exception Occured! Reason -> {} and Message -> {}", e.getCause(), e.getReason());
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
+        } catch (StorageException e) {
+            log.error("Exception Occured! while reading export -> {}. Message -> {}", id, e.getMessage());
+            response = getResponseDTO("The export file is no longer available", HttpStatus.GONE);
+        } catch (Exception e) {
+            log.error("Exception Occured! statusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
+            response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.getStatusCode()));
+    }
+
+    void run(UUID id, List<String> fields) {
+        StudentExportJob job = jobRepository.findById(id).orElseThrow();
+        UUID[] bounds = bounds(parallelism);
+        List<String> parts = new ArrayList<>(parallelism);
+        AtomicBoolean aborted = new AtomicBoolean();
+        try {
+            List<CompletableFuture<Long>> ranges = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                String part = job.getFileName() + ".part" + i;
+                parts.add(part);
+                UUID from = bounds[i];
+                UUID to = bounds[i + 1];
+                ranges.add(CompletableFuture.supplyAsync(() -> exportRange(fields, from, to, part, aborted), executor)
+                        // stops the other ranges at their next row
+                        .whenComplete((written, e) -> aborted.compareAndSet(false, e != null)));
+            }
+            long rows = 0;
+            for (CompletableFuture<Long> range : ranges) {
+                try {
+                    rows += range.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+
+            try (OutputStream out = storageService.newOutputStream(job.getFileName())) {
+                out.write(header(fields));
+                for (String part : parts) {
+                    Files.copy(storageService.load(part), out);
+                }
+            }
+            job.setStatus(StudentExportStatus.COMPLETED);
+            job.setExportedRows(rows);
+            job.setSizeBytes(Files.size(storageService.load(job.getFileName())));
+            job.setUpdatedAt(ZonedDateTime.now());
+            jobRepository.save(job);
+            log.info(SUCCESS, "Export -> {} completed, rows -> {} bytes -> {}", id, rows, job.getSizeBytes());
+        } catch (Exception e) {
+            log.error("Exception Occured! Export -> {} failed. Message -> {}", id, e.getMessage());
+            delete(job.getFileName());
+            fail(job, e.getMessage());
+        } finally {
+            parts.forEach(this::delete);
+            active.remove(id);
+        }
+    }
+
+    /**
+     * Streams the students with from <= id < to into a gzip part file, in one snapshot
+     * @return the number of rows written
+     */
+    private long exportRange(List<String> fields, UUID from, UUID to, String part, AtomicBoolean aborted) {
+        StringBuilder sql = new StringBuilder("select ");
+        for (int i = 0; i < fields.size(); i++) {
+            String column = transformToSnake(fields.get(i));
+            sql.append(i == 0 ? "" : ", ").append("version".equals(column) ? "coalesce(version, 0)" : column);
+        }
+        sql.append(" from student");
+        List<Object> args = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(" where id >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(from == null ? " where" : " and").append(" id < ?");
+            args.add(to);
+        }
+        // walks the primary key index of the range instead of scanning the table once per range
+        sql.append(" order by id");
+
+        return snapshotTransaction.execute(status -> {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(storageService.newOutputStream(part), 64 * 1024), StandardCharsets.UTF_8))) {
+                long[] rows = {0};
+                Object[] values = new Object[fields.size()];
+                cursorTemplate.query(sql.toString(), rs -> {
+                    if (aborted.get()) {
+                        throw new IllegalStateException("Export cancelled");
+                    }
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = rs.getObject(i + 1);
+                    }
+                    try {
+                        writeRecord(writer, values);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                }, args.toArray());
+                return rows[0];
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * @return parts + 1 bounds splitting the UUID space evenly on its leading 32 bits, the first and last are null
+     */
+    static UUID[] bounds(int parts) {
+        UUID[] bounds = new UUID[parts + 1];
+        for (int i = 1; i < parts; i++) {
+            long leading = (i * (1L << 32)) / parts;
+            bounds[i] = new UUID(leading << 32, 0);
+        }
+        return bounds;
+    }
+
+    /**
+     * @return the header row as a gzip member of its own, the parts are appended after it
+     */
+    private static byte[] header(List<String> fields) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            writeRecord(writer, fields.toArray());
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes one RFC 4180 record, quoting values that hold a comma, quote or line break
+     */
+    static void writeRecord(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String value = values[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void fail(StudentExportJob job, String message) {
+        try {
+            job.setStatus(StudentExportStatus.FAILED);
+            job.setFailure(message == null ? null : message.substring(0, Math.min(message.length(), 1000)));
+            job.setUpdatedAt(ZonedDateTime.now());
+            jobRepository.save(job);
+        } catch (Exception e) {
+            log.error("Exception Occured! while marking export -> {} failed. Message -> {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private void delete(String fileName) {
+        try {
+            Files.deleteIfExists(storageService.load(fileName));
+        } catch (IOException e) {
+            log.warn("Could not delete export file -> {}. Message -> {}", fileName, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the file of an export and any parts left next to it
+     */
+    private void deleteFiles(String fileName) {
+        try (Stream<Path> files = storageService.loadAll()) {
+            files.map(Path::toString)
+                    .filter(name -> name.equals(fileName) || name.startsWith(fileName + ".part"))
+                    .forEach(this::delete);
+        } catch (Exception e) {
+            log.warn("Could not delete the files of export -> {}. Message -> {}", fileName, e.getMessage());
+        }
+    }
+
+    private static StudentExportJobDto toDto(StudentExportJob job) {
+        return StudentExportJobDto.builder()
+                .id(job.getId())
+                .status(job.getStatus().name())
+                .fields(Arrays.asList(job.getFields().split(",")))
+                .exportedRows(job.getExportedRows())
+                .sizeBytes(job.getSizeBytes())
+                .failure(job.getFailure())
+                .download(job.getStatus() == StudentExportStatus.COMPLETED
+                        ? CONTEXT_PATH + "/export/" + job.getId() + "/file" : null)
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+}
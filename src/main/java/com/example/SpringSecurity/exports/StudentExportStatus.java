@@ -0,0 +1,10 @@
+package com.example.SpringSecurity.exports;
+
+/**
+ * Lifecycle of a StudentExportJob. The file of a COMPLETED job can be downloaded, a FAILED job is started again.
+ */
+public enum StudentExportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
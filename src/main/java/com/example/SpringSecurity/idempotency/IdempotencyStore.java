@@ -0,0 +1,158 @@
+package com.example.SpringSecurity.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of requests sent with an Idempotency-Key, per caller, so a retried request gets
+ * the first response back instead of running again.
+ *
+ * The first request for a key stores a pending future before it runs, a concurrent duplicate finds it
+ * and waits for the outcome rather than running the action a second time. Pending entries live in a map
+ * of their own that is never evicted, it only holds the requests running right now. Finished outcomes move
+ * to a cache bounded in number that expires after the TTL. Outcomes that are not worth keeping (server
+ * errors, exceptions) are dropped, so the next retry runs the action again. The store is local to this node.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final ConcurrentMap<String, Entry> pending = new ConcurrentHashMap<>();
+    private final Cache<String, Entry> completed;
+    private final Duration waitTimeout;
+
+    public IdempotencyStore(@Value("${student.idempotency.max-entries:100000}") long maxEntries,
+                            @Value("${student.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${student.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+                            MeterRegistry meterRegistry) {
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.waitTimeout = Duration.ofMillis(waitTimeoutMs);
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotencyStore");
+        Gauge.builder("idempotency.pending", pending, Map::size)
+                .description("Requests with an Idempotency-Key that are running now")
+                .register(meterRegistry);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Outcome<T> {
+        private final T value;
+        /**
+         * True when the value was stored by an earlier request with the same key
+         */
+        private final boolean replayed;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Object> result;
+    }
+
+    /**
+     * Runs the action once per caller and key.
+     *
+     * @param caller      who sent the request, keys of different callers never collide
+     * @param key         the Idempotency-Key header
+     * @param fingerprint identifies the request content, a key reused with other content is rejected
+     * @param action      does the work
+     * @param keep        whether an outcome may be replayed, others are forgotten
+     * @return the outcome of this or the earlier request
+     * @throws ResponseStatusException 422 if the key was used for a different request,
+     *                                 409 if the earlier request is still running after the wait timeout
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String caller, String key, String fingerprint, Supplier<T> action, Predicate<T> keep) {
+        String id = caller + '\u0000' + key;
+
+        while (true) {
+            Entry done = completed.getIfPresent(id);
+            if (done != null) {
+                checkFingerprint(done, fingerprint, key);
+                return new Outcome<>((T) done.result.join(), true);
+            }
+
+            Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+            Entry running = pending.putIfAbsent(id, mine);
+            if (running == null) {
+                if (completed.getIfPresent(id) != null) {
+                    // finished between the lookup and putIfAbsent, read it on the next pass
+                    pending.remove(id, mine);
+                    mine.result.completeExceptionally(new IllegalStateException("completed concurrently"));
+                    continue;
+                }
+                return new Outcome<>(run(id, mine, action, keep), false);
+            }
+
+            checkFingerprint(running, fingerprint, key);
+            T value;
+            try {
+                value = (T) running.result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A request with Idempotency-Key " + key + " is still in progress");
+            } catch (ExecutionException e) {
+                // the first attempt failed and was forgotten, try to run it ourselves
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for request " + key);
+            }
+            if (keep.test(value)) {
+                return new Outcome<>(value, true);
+            }
+        }
+    }
+
+    /**
+     * Runs the action for the pending entry, a kept outcome is stored before the entry stops being pending
+     */
+    private <T> T run(String id, Entry mine, Supplier<T> action, Predicate<T> keep) {
+        T value;
+        try {
+            value = action.get();
+        } catch (RuntimeException | Error e) {
+            pending.remove(id, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+        if (keep.test(value)) {
+            completed.put(id, new Entry(mine.fingerprint, CompletableFuture.completedFuture(value)));
+        }
+        pending.remove(id, mine);
+        mine.result.complete(value);
+        return value;
+    }
+
+    private static void checkFingerprint(Entry entry, String fingerprint, String key) {
+        if (!entry.fingerprint.equals(fingerprint)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key " + key + " was already used for a different request");
+        }
+    }
+}
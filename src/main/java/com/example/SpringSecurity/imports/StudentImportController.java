@@ -0,0 +1,37 @@
+package com.example.SpringSecurity.imports;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.SpringSecurity.security.SecurityConfig.CONTEXT_PATH;
+
+@RestController
+@RequestMapping(CONTEXT_PATH + "/import")
+@AllArgsConstructor
+public class StudentImportController {
+
+    private final StudentImportService studentImportService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ResponseDTO> startImport(@RequestParam("file") MultipartFile file) {
+        return studentImportService.startImport(file);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ResponseDTO> getImport(@PathVariable(name = "id") UUID id,
+                                                 @RequestParam Map<String, String> params) {
+        return studentImportService.getImport(id, params);
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ResponseDTO> resumeImport(@PathVariable(name = "id") UUID id) {
+        return studentImportService.resumeImport(id);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.SpringSecurity.imports;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * A rejected CSV row, written in the same transaction as the batch it belongs to
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "student_import_error", indexes = @Index(name = "student_import_error_job_idx", columnList = "jobId, rowNumber"))
+public class StudentImportError {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private UUID jobId;
+
+    /**
+     * Spreadsheet row, the header is row 1
+     */
+    private long rowNumber;
+
+    @Column(length = 1000)
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.example.SpringSecurity.imports;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface StudentImportErrorRepository extends JpaRepository<StudentImportError, Long> {
+
+    Page<StudentImportError> findByJobIdOrderByRowNumberAsc(UUID jobId, Pageable pageable);
+
+    long countByJobId(UUID jobId);
+}
@@ -0,0 +1,66 @@
+package com.example.SpringSecurity.imports;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of one CSV import. committedRow advances in the transaction of each batch,
+ * so a resumed job skips exactly the rows that are already in the student table.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "student_import_job")
+public class StudentImportJob {
+    @Id
+    private UUID id;
+
+    /**
+     * Name of the uploaded file, as sent by the client
+     */
+    private String fileName;
+
+    /**
+     * Name of the copy kept by StorageService
+     */
+    private String storedFile;
+
+    @Enumerated(EnumType.STRING)
+    private StudentImportStatus status;
+
+    /**
+     * Spreadsheet row (the header is row 1) of the last row in a committed batch, 1 before the first batch
+     */
+    private long committedRow;
+
+    private long imported;
+
+    private long rejected;
+
+    @Column(length = 1000)
+    private String failure;
+
+    /**
+     * Guards claiming a job for a run, two resume calls cannot both start it
+     */
+    @Version
+    private Long version;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private ZonedDateTime createdAt;
+
+    /**
+     * Heartbeat, moved on with every committed batch
+     */
+    private ZonedDateTime updatedAt;
+}
@@ -0,0 +1,24 @@
+package com.example.SpringSecurity.imports;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+public interface StudentImportJobRepository extends JpaRepository<StudentImportJob, UUID> {
+
+    /**
+     * Records a committed batch, called inside the batch's transaction
+     * @return 0 when the job is no longer RUNNING, e.g. it was claimed again after looking stale
+     */
+    @Modifying
+    @Query("update StudentImportJob j set j.committedRow = :committedRow, j.imported = j.imported + :imported,"
+            + " j.rejected = j.rejected + :rejected, j.updatedAt = :now"
+            + " where j.id = :id and j.status = com.example.SpringSecurity.imports.StudentImportStatus.RUNNING"
+            + " and j.version = :version")
+    int advance(@Param("id") UUID id, @Param("version") Long version, @Param("committedRow") long committedRow,
+                @Param("imported") long imported, @Param("rejected") long rejected, @Param("now") ZonedDateTime now);
+}
@@ -0,0 +1,409 @@
+package com.example.SpringSecurity.imports;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.dto.StudentDto;
+import com.example.SpringSecurity.dto.StudentImportJobDto;
+import com.example.SpringSecurity.events.StudentChangePublisher;
+import com.example.SpringSecurity.events.StudentChangeType;
+import com.example.SpringSecurity.storage.StorageException;
+import com.example.SpringSecurity.storage.StorageService;
+import com.example.SpringSecurity.student.StudentQueryCache;
+import com.example.SpringSecurity.utility.ObjectNotValidException;
+import com.example.SpringSecurity.utility.Pagination;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.SpringSecurity.logging.LogMarkers.SUCCESS;
+import static com.example.SpringSecurity.utility.AppUtils.*;
+
+/**
+ * Imports students from an uploaded CSV file in the background.
+ *
+ * The upload is kept through StorageService and read back as a stream, one record at a time. Valid rows
+ * are inserted with JDBC batch statements, rejected rows are recorded with their errors, and the job's
+ * committedRow moves on in the same transaction as each batch. A failed import, or one left RUNNING by
+ * a node that stopped, resumes after its last committed batch without inserting any row twice.
+ *
+ * The file needs a header row naming the firstName, lastName and email columns, in any order and
+ * spelling (first_name, First Name). Other columns are ignored, and so are records with no value in any
+ * column.
+ */
+@Service
+@Slf4j
+public class StudentImportService {
+
+    private static final String INSERT_STUDENT =
+            "insert into student (id, first_name, last_name, email, version, created_at) values (?, ?, ?, ?, 0, ?)";
+    private static final String INSERT_ERROR =
+            "insert into student_import_error (job_id, row_number, message) values (?, ?, ?)";
+    private static final List<String> COLUMNS = List.of("firstname", "lastname", "email");
+    private static final int MAX_ERRORS_PAGE_SIZE = 500;
+
+    private final StudentImportJobRepository jobRepository;
+    private final StudentImportErrorRepository errorRepository;
+    private final StorageService storageService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StudentChangePublisher studentChangePublisher;
+    private final StudentQueryCache studentQueryCache;
+    private final ThreadPoolTaskExecutor executor;
+    private final int batchSize;
+    private final long maxErrors;
+    private final long staleAfterSeconds;
+
+    public StudentImportService(StudentImportJobRepository jobRepository,
+                                StudentImportErrorRepository errorRepository,
+                                StorageService storageService,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                StudentChangePublisher studentChangePublisher,
+                                StudentQueryCache studentQueryCache,
+                                @Value("${student.import.batch-size:500}") int batchSize,
+                                @Value("${student.import.max-errors:10000}") long maxErrors,
+                                @Value("${student.import.stale-after-seconds:120}") long staleAfterSeconds,
+                                @Value("${student.import.threads:2}") int threads,
+                                @Value("${student.import.queue-capacity:100}") int queueCapacity) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.storageService = storageService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.studentChangePublisher = studentChangePublisher;
+        this.studentQueryCache = studentQueryCache;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.staleAfterSeconds = staleAfterSeconds;
+
+        // not a bean, a ThreadPoolTaskExecutor bean would replace Spring Boot's applicationTaskExecutor
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("student-import-");
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // jobs cut short stay RUNNING and are resumed from their last committed batch
+        executor.shutdown();
+    }
+
+    /**
+     * This method stores an uploaded CSV file and queues its import
+     * @param file the CSV file
+     * @return the queued job, 202 Accepted
+     */
+    public ResponseEntity<ResponseDTO> startImport(MultipartFile file) {
+        log.debug("Inside start Import ::: Trying to queue a student import");
+        ResponseDTO response;
+        try {
+            if (file == null || file.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A non empty CSV file is required");
+            }
+            UUID id = UUID.randomUUID();
+            String storedFile = "student-import-" + id + ".csv";
+            storageService.store(file, storedFile);
+            StudentImportJob job = jobRepository.save(StudentImportJob.builder()
+                    .id(id)
+                    .fileName(file.getOriginalFilename())
+                    .storedFile(storedFile)
+                    .status(StudentImportStatus.QUEUED)
+                    .committedRow(1)
+                    .updatedAt(ZonedDateTime.now())
+                    .build());
+            submit(job);
+            log.info(SUCCESS, "Success! statusCode -> {} and id -> {}", HttpStatus.ACCEPTED, id);
+            response = getResponseDTO("Import queued", HttpStatus.ACCEPTED, toDto(job, null));
+        } catch (ResponseStatusException e) {
+            log.error("Exception Occured! Reason -> {} and Message -> {}", e.getCause(), e.getReason());
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
+        } catch (StorageException e) {
+            log.error("Exception Occured! while storing the import file. Message -> {}", e.getMessage());
+            response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (Exception e) {
+            log.error("Exception Occured! statusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
+            response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.getStatusCode()));
+    }
+
+    /**
+     * This method returns the progress of an import with one page of its rejected rows
+     * @param id the job id
+     * @param params page and size of the rejected rows
+     * @return the job
+     */
+    public ResponseEntity<ResponseDTO> getImport(UUID id, Map<String, String> params) {
+        log.debug("Inside get Import ::: Trying to find student import -> {}", id);
+        ResponseDTO response;
+        try {
+            StudentImportJob job = jobRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No import with id " + id));
+            int page = getParamToInteger(params, DEFAULT_PAGE_NUMBER, "page") - 1;
+            int size = Math.min(getParamToInteger(params, DEFAULT_PAGE_SIZE, "size"), MAX_ERRORS_PAGE_SIZE);
+            var errors = errorRepository.findByJobIdOrderByRowNumberAsc(id, PageRequest.of(page, size));
+            response = getResponseDTO("Successfully retrieved the import", HttpStatus.OK, toDto(job, mapToPagination(errors)));
+        } catch (ResponseStatusException e) {
+            log.error("Exception Occured! Reason -> {} and Message -> {}", e.getCause(), e.getReason());
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
+        } catch (Exception e) {
+            log.error("Exception Occured! statusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
+            response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.getStatusCode()));
+    }
+
+    /**
+     * This method queues a failed or abandoned import again, it continues after the last committed batch
+     * @param id the job id
+     * @return the queued job, 202 Accepted, or 409 when it is completed or still running
+     */
+    public ResponseEntity<ResponseDTO> resumeImport(UUID id) {
+        log.debug("Inside resume Import ::: Trying to resume student import -> {}", id);
+        ResponseDTO response;
+        try {
+            StudentImportJob job = jobRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No import with id " + id));
+            boolean stale = job.getUpdatedAt() == null
+                    || job.getUpdatedAt().isBefore(ZonedDateTime.now().minusSeconds(staleAfterSeconds));
+            if (job.getStatus() == StudentImportStatus.COMPLETED
+                    || (job.getStatus() != StudentImportStatus.FAILED && !stale)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Import is " + job.getStatus().name().toLowerCase(Locale.ROOT));
+            }
+            job.setStatus(StudentImportStatus.QUEUED);
+            job.setFailure(null);
+            job.setUpdatedAt(ZonedDateTime.now());
+            // the version check makes concurrent resumes of the same job fail instead of running it twice
+            job = jobRepository.save(job);
+            submit(job);
+            log.info(SUCCESS, "Success! statusCode -> {} and id -> {} from row -> {}", HttpStatus.ACCEPTED, id, job.getCommittedRow());
+            response = getResponseDTO("Import resumed", HttpStatus.ACCEPTED, toDto(job, null));
+        } catch (ResponseStatusException e) {
+            log.error("Exception Occured! Reason -> {} and Message -> {}", e.getCause(), e.getReason());
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
+        } catch (OptimisticLockingFailureException e) {
+            log.error("Exception Occured! Import -> {} was resumed concurrently", id);
+            response = getResponseDTO("Import was resumed by another request", HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            log.error("Exception Occured! statusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
+            response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.getStatusCode()));
+    }
+
+    private void submit(StudentImportJob job) {
+        try {
+            executor.execute(() -> run(job.getId()));
+        } catch (TaskRejectedException e) {
+            fail(job.getId(), "Too many imports queued, resume this one later");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many imports queued, resume this one later");
+        }
+    }
+
+    void run(UUID id) {
+        StudentImportJob job = jobRepository.findById(id).orElse(null);
+        if (job == null || job.getStatus() != StudentImportStatus.QUEUED) {
+            return;
+        }
+        job.setStatus(StudentImportStatus.RUNNING);
+        job.setUpdatedAt(ZonedDateTime.now());
+        try {
+            job = jobRepository.save(job);
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Import -> {} was claimed by another node", id);
+            return;
+        }
+
+        log.info("Importing students from -> {} after row -> {}", job.getFileName(), job.getCommittedRow());
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(storageService.load(job.getStoredFile()), StandardCharsets.UTF_8))) {
+            int[] columns = columns(reader.next());
+            while (reader.getRecordNumber() < job.getCommittedRow() && reader.next() != null) {
+                // skip rows of batches committed by an earlier run
+            }
+
+            Batch batch = new Batch();
+            long errors = errorRepository.countByJobId(id);
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                long row = reader.getRecordNumber();
+                batch.lastRow = row;
+                if (isEmpty(record)) {
+                    // blank lines, or rows of empty cells a spreadsheet exports, are not students
+                    continue;
+                }
+                try {
+                    StudentDto student = toStudent(record, columns);
+                    StudentRowValidator.validate(student);
+                    batch.students.add(student);
+                } catch (ObjectNotValidException e) {
+                    if (errors++ < maxErrors) {
+                        batch.errors.add(new Object[]{id, row, String.join("; ", e.getErrorMessages())});
+                    }
+                    batch.rejected++;
+                }
+                if (batch.students.size() + batch.rejected >= batchSize) {
+                    commit(job, batch);
+                    batch = new Batch();
+                }
+            }
+            if (batch.lastRow > 0) {
+                commit(job, batch);
+            }
+
+            job = jobRepository.findById(id).orElseThrow();
+            job.setStatus(StudentImportStatus.COMPLETED);
+            job.setUpdatedAt(ZonedDateTime.now());
+            jobRepository.save(job);
+            log.info(SUCCESS, "Import -> {} completed, imported -> {} rejected -> {}", id, job.getImported(), job.getRejected());
+        } catch (ImportAbandonedException | OptimisticLockingFailureException e) {
+            log.warn("Import -> {} stopped, it was claimed again after looking stale", id);
+        } catch (Exception e) {
+            log.error("Exception Occured! Import -> {} failed after row -> {}. Message -> {}", id, job.getCommittedRow(), e.getMessage());
+            fail(id, e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts one batch with its errors and moves committedRow on, all in one transaction
+     */
+    private void commit(StudentImportJob job, Batch batch) {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Object[]> rows = new ArrayList<>(batch.students.size());
+        for (StudentDto student : batch.students) {
+            rows.add(new Object[]{UUID.randomUUID(), student.getFirstName(), student.getLastName(), student.getEmail(), now});
+        }
+        Boolean advanced = transactionTemplate.execute(status -> {
+            if (jobRepository.advance(job.getId(), job.getVersion(), batch.lastRow, rows.size(), batch.rejected,
+                    now.toZonedDateTime()) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_STUDENT, rows);
+                studentChangePublisher.record(null, StudentChangeType.BULK);
+            }
+            if (!batch.errors.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ERROR, batch.errors);
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(advanced)) {
+            throw new ImportAbandonedException();
+        }
+        job.setCommittedRow(batch.lastRow);
+        if (!rows.isEmpty()) {
+            studentQueryCache.invalidate();
+        }
+    }
+
+    private void fail(UUID id, String message) {
+        try {
+            jobRepository.findById(id).ifPresent(job -> {
+                job.setStatus(StudentImportStatus.FAILED);
+                job.setFailure(message == null ? null : message.substring(0, Math.min(message.length(), 1000)));
+                job.setUpdatedAt(ZonedDateTime.now());
+                jobRepository.save(job);
+            });
+        } catch (Exception e) {
+            log.error("Exception Occured! while marking import -> {} failed. Message -> {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the index of firstName, lastName and email in a record
+     */
+    private static int[] columns(List<String> header) throws IOException {
+        if (header == null) {
+            throw new IOException("The file is empty");
+        }
+        int[] columns = {-1, -1, -1};
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+            int column = COLUMNS.indexOf(name);
+            if (column >= 0 && columns[column] < 0) {
+                columns[column] = i;
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] < 0) {
+                throw new IOException("The header row has no " + COLUMNS.get(i) + " column");
+            }
+        }
+        return columns;
+    }
+
+    private static boolean isEmpty(List<String> record) {
+        for (String field : record) {
+            if (!field.isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static StudentDto toStudent(List<String> record, int[] columns) {
+        return StudentDto.builder()
+                .firstName(field(record, columns[0]))
+                .lastName(field(record, columns[1]))
+                .email(field(record, columns[2]))
+                .build();
+    }
+
+    private static String field(List<String> record, int index) {
+        if (index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static StudentImportJobDto toDto(StudentImportJob job, Pagination errors) {
+        return StudentImportJobDto.builder()
+                .id(job.getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus().name())
+                .committedRow(job.getCommittedRow())
+                .imported(job.getImported())
+                .rejected(job.getRejected())
+                .failure(job.getFailure())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .errors(errors)
+                .build();
+    }
+
+    private static class Batch {
+        private final List<StudentDto> students = new ArrayList<>();
+        private final List<Object[]> errors = new ArrayList<>();
+        private long rejected;
+        private long lastRow;
+    }
+
+    private static class ImportAbandonedException extends RuntimeException {
+    }
+}
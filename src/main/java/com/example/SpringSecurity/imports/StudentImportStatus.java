@@ -0,0 +1,11 @@
+package com.example.SpringSecurity.imports;
+
+/**
+ * Lifecycle of a StudentImportJob. FAILED jobs, and RUNNING jobs whose node stopped, can be resumed.
+ */
+public enum StudentImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
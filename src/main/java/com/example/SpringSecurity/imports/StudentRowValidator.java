@@ -0,0 +1,47 @@
+package com.example.SpringSecurity.imports;
+
+import com.example.SpringSecurity.dto.StudentDto;
+import com.example.SpringSecurity.utility.ObjectNotValidException;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Checks an imported row before it is inserted, all problems of the row are reported together
+ */
+public final class StudentRowValidator {
+
+    private static final int MAX_LENGTH = 255;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private StudentRowValidator() {
+    }
+
+    /**
+     * @throws ObjectNotValidException carrying every error of the row
+     */
+    public static void validate(StudentDto student) {
+        Set<String> errors = new LinkedHashSet<>();
+        required(errors, "firstName", student.getFirstName());
+        required(errors, "lastName", student.getLastName());
+        if (required(errors, "email", student.getEmail()) && !EMAIL.matcher(student.getEmail()).matches()) {
+            errors.add("email is not a valid address");
+        }
+        if (!errors.isEmpty()) {
+            throw new ObjectNotValidException(errors);
+        }
+    }
+
+    private static boolean required(Set<String> errors, String name, String value) {
+        if (value == null || value.isBlank()) {
+            errors.add(name + " is required");
+            return false;
+        }
+        if (value.length() > MAX_LENGTH) {
+            errors.add(name + " must be at most " + MAX_LENGTH + " characters");
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.SpringSecurity.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Markers understood by logback-spring.xml
+ */
+public final class LogMarkers {
+
+    /**
+     * Routine success lines on request paths, rate sampled per logger by SamplingTurboFilter
+     */
+    public static final Marker SUCCESS = MarkerFactory.getMarker("SUCCESS");
+
+    private LogMarkers() {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.SpringSecurity.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through at most permitsPerSecond events carrying the configured marker per logger and second,
+ * the rest are denied before a message is formatted or queued. Events without the marker are not touched.
+ *
+ * Configured in logback-spring.xml:
+ * <pre>
+ * &lt;turboFilter class="com.example.SpringSecurity.logging.SamplingTurboFilter"&gt;
+ *     &lt;marker&gt;SUCCESS&lt;/marker&gt;
+ *     &lt;permitsPerSecond&gt;20&lt;/permitsPerSecond&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final Map<String, AtomicLong> windows = new ConcurrentHashMap<>();
+    private String marker = "SUCCESS";
+    private int permitsPerSecond = 20;
+
+    public void setMarker(String marker) {
+        this.marker = marker;
+    }
+
+    public void setPermitsPerSecond(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    @Override
+    public FilterReply decide(Marker eventMarker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (eventMarker == null || !eventMarker.contains(marker) || !isStarted()) {
+            return FilterReply.NEUTRAL;
+        }
+        // disabled statements must not use up the budget
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return tryAcquire(logger.getName()) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    /**
+     * The window packs the current second in the high bits and the events seen in it in the low 20 bits,
+     * so a single CAS both rolls the window over and counts
+     */
+    private boolean tryAcquire(String loggerName) {
+        AtomicLong window = windows.computeIfAbsent(loggerName, name -> new AtomicLong());
+        long second = System.currentTimeMillis() / 1000;
+        while (true) {
+            long current = window.get();
+            long count = (current >>> 20) == second ? current & 0xFFFFF : 0;
+            if (count >= permitsPerSecond) {
+                return false;
+            }
+            if (window.compareAndSet(current, (second << 20) | (count + 1))) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.SpringSecurity.security;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The caller of a request, read from the claims of their Keycloak token once when the token is converted.
+ * Available through AppUtils.getAuthenticatedUser() or a @CurrentUser controller parameter.
+ */
+@Value
+@Builder
+public class AuthenticatedUser {
+
+    /**
+     * The sub claim, null when it is not a UUID
+     */
+    UUID id;
+    String subject;
+    String email;
+    String firstName;
+    String lastName;
+    /**
+     * The azp claim, the client the token was issued to
+     */
+    String clientId;
+    List<String> realmRoles;
+    /**
+     * Client roles by client id, from resource_access
+     */
+    Map<String, List<String>> clientRoles;
+
+    public static AuthenticatedUser fromJwt(Jwt jwt) {
+        Map<String, List<String>> clientRoles = new HashMap<>();
+        if (jwt.getClaims().get("resource_access") instanceof Map<?, ?> resourceAccess) {
+            resourceAccess.forEach((client, access) -> clientRoles.put(client.toString(), rolesOf(access)));
+        }
+        return AuthenticatedUser.builder()
+                .id(parseId(jwt.getSubject()))
+                .subject(jwt.getSubject())
+                .email(jwt.getClaimAsString("email"))
+                .firstName(jwt.getClaimAsString("given_name"))
+                .lastName(jwt.getClaimAsString("family_name"))
+                .clientId(jwt.getClaimAsString("azp"))
+                .realmRoles(rolesOf(jwt.getClaims().get("realm_access")))
+                .clientRoles(Map.copyOf(clientRoles))
+                .build();
+    }
+
+    public List<String> getClientRoles(String client) {
+        return clientRoles.getOrDefault(client, List.of());
+    }
+
+    public boolean hasRealmRole(String role) {
+        return realmRoles.contains(role);
+    }
+
+    /**
+     * Same rule as AppUtils.hasAdminRole, any realm role containing ADMIN
+     */
+    public boolean isAdmin() {
+        for (String role : realmRoles) {
+            if (role.contains("ADMIN")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the roles list of a realm_access or resource_access entry, ignoring anything of the wrong shape
+     * @param access the claim value
+     * @return immutable list of roles
+     */
+    public static List<String> rolesOf(Object access) {
+        if (access instanceof Map<?, ?> map && map.get("roles") instanceof Iterable<?> roles) {
+            List<String> names = new ArrayList<>();
+            for (Object role : roles) {
+                if (role != null) {
+                    names.add(role.toString());
+                }
+            }
+            return List.copyOf(names);
+        }
+        return List.of();
+    }
+
+    private static UUID parseId(String subject) {
+        // Keycloak subjects are UUIDs, anything else (e.g. a client id) has no user id
+        if (subject == null || subject.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(subject);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.SpringSecurity.security;
+
+import lombok.AllArgsConstructor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+/**
+ * Converts a validated token into an AuthenticatedUserToken. Authorities and the principal name come
+ * from the JwtAuthenticationConverter bean, the AuthenticatedUser is parsed here once per request.
+ */
+@AllArgsConstructor
+public class AuthenticatedUserConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final JwtAuthenticationConverter delegate;
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        AbstractAuthenticationToken token = delegate.convert(jwt);
+        return new AuthenticatedUserToken(jwt, token.getAuthorities(), token.getName(), AuthenticatedUser.fromJwt(jwt));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.SpringSecurity.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * JwtAuthenticationToken that also carries the AuthenticatedUser parsed from the token
+ */
+@Getter
+public class AuthenticatedUserToken extends JwtAuthenticationToken {
+
+    private final AuthenticatedUser user;
+
+    public AuthenticatedUserToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, String name, AuthenticatedUser user) {
+        super(jwt, authorities, name);
+        this.user = user;
+    }
+}
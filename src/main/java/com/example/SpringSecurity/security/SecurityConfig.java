@@ -2,16 +2,21 @@ package com.example.SpringSecurity.security;
 
 
 import jakarta.servlet.Filter;
+import com.example.SpringSecurity.throttling.RateLimitFilter;
+import com.example.SpringSecurity.warmup.WarmupJwtDecoder;
+import com.example.SpringSecurity.warmup.WarmupTokens;
 import lombok.extern.slf4j.Slf4j;
 import org.keycloak.adapters.authorization.integration.jakarta.ServletPolicyEnforcerFilter;
 import org.keycloak.adapters.authorization.spi.ConfigurationResolver;
 import org.keycloak.adapters.authorization.spi.HttpRequest;
 import org.keycloak.representations.adapters.config.PolicyEnforcerConfig;
 import org.keycloak.util.JsonSerialization;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -27,6 +32,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtDecoders;
+import org.springframework.security.oauth2.jwt.SupplierJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
@@ -36,6 +42,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -55,9 +62,23 @@ public class SecurityConfig {
 //        this.passwordEncoder = passwordEncoder;
 //    }
 
+    @Value("${spring.security.oauth2.resource-server.jwt.issuer-uri}")
+    private String issuerUri;
+
+    @Value("${security.policy-enforcer.config:classpath:policy-enforcer.json}")
+    private Resource policyEnforcerConfig;
+
+    /**
+     * Issuer discovery and the JWKS download happen on the first token instead of at startup,
+     * so the service boots without waiting on Keycloak. A failed discovery is retried on the next token.
+     *
+     * @param warmupTokens present when student.warmup.enabled is true, its tokens are accepted until the warm-up ends
+     */
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return JwtDecoders.fromIssuerLocation("http://localhost:8080/realms/Derrick");
+    public JwtDecoder jwtDecoder(ObjectProvider<WarmupTokens> warmupTokens) {
+        JwtDecoder keycloak = new SupplierJwtDecoder(() -> JwtDecoders.fromIssuerLocation(issuerUri));
+        WarmupTokens tokens = warmupTokens.getIfAvailable();
+        return tokens == null ? keycloak : new WarmupJwtDecoder(keycloak, tokens);
     }
 
     public static final String CONTEXT_PATH = "/api/v1/students";
@@ -84,11 +105,15 @@ public class SecurityConfig {
      * It uses keycloak for securing rest api calls
      *
      * @param http The HTTP security configuration.
+     * @param rateLimitFilter The per client rate limiter, absent when student.rate-limit.enabled is false.
      * @return The configured security filter chain.
      * @throws Exception If an error occurs while configuring the security filter chain.
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ObjectProvider<RateLimitFilter> rateLimitFilter) throws Exception {
+
+        // ahead of the policy enforcer, so throttled requests never cost a call to Keycloak
+        rateLimitFilter.ifAvailable(filter -> http.addFilterAfter(filter, BearerTokenAuthenticationFilter.class));
 
         return http
                 .csrf(AbstractHttpConfigurer::disable)
@@ -100,23 +125,27 @@ public class SecurityConfig {
                         .permitAll()
                         .anyRequest()
                         .authenticated())
-                .oauth2ResourceServer((oauth2) -> oauth2.jwt(Customizer.withDefaults()))
+                .oauth2ResourceServer((oauth2) -> oauth2.jwt(jwt -> jwt
+                        .jwtAuthenticationConverter(new AuthenticatedUserConverter(jwtAuthenticationConverter()))))
                 .addFilterAfter(createPolicyEnforcerFilter(), BearerTokenAuthenticationFilter.class)
                 .build();
     }
 
-    private ServletPolicyEnforcerFilter createPolicyEnforcerFilter() {
+    /**
+     * The policy enforcer config is read once, the resolver is called for every request
+     */
+    private ServletPolicyEnforcerFilter createPolicyEnforcerFilter() throws IOException {
+        PolicyEnforcerConfig config;
+        try (InputStream inputStream = policyEnforcerConfig.getInputStream()) {
+            config = JsonSerialization.readValue(inputStream, PolicyEnforcerConfig.class);
+        }
         return new ServletPolicyEnforcerFilter(new ConfigurationResolver() {
             @Override
             public PolicyEnforcerConfig resolve(HttpRequest httpRequest) {
-                try {
-                return JsonSerialization.readValue(getClass().getResourceAsStream("/policy-enforcer.json"), PolicyEnforcerConfig.class);
-            } catch(IOException e) {
-                throw new RuntimeException();
+                return config;
             }
-        }
         });
-}
+    }
 
     /**
      * This method is the Cors Configuration that allow Application CRUD on the server
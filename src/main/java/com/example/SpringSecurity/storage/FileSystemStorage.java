@@ -8,6 +8,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
@@ -50,6 +51,15 @@ public class FileSystemStorage implements StorageService{
         }
     }
 
+    @Override
+    public OutputStream newOutputStream(String fileName) {
+        try {
+            return Files.newOutputStream(this.rootLocation.resolve(fileName));
+        } catch (IOException e) {
+            throw new StorageException("Failed to open file " + fileName, e);
+        }
+    }
+
     @Override
     public Stream<Path> loadAll() {
         try {
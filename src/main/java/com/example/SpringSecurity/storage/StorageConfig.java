@@ -0,0 +1,20 @@
+package com.example.SpringSecurity.storage;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Exposes the file system StorageService under the locations of StorageProperties
+ */
+@Configuration
+@EnableConfigurationProperties(StorageProperties.class)
+public class StorageConfig {
+
+    @Bean
+    public StorageService storageService(StorageProperties properties) {
+        return new FileSystemStorage(Path.of(properties.getLocation()), Path.of(properties.getTempLocation()));
+    }
+}
@@ -3,6 +3,7 @@ package com.example.SpringSecurity.storage;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.stream.Stream;
 
@@ -12,6 +13,11 @@ public interface StorageService {
 
     void store(MultipartFile file, String fileName);
 
+    /**
+     * Opens a file for writing, replacing an existing one of the same name. The caller closes the stream.
+     */
+    OutputStream newOutputStream(String fileName);
+
     Stream<Path> loadAll();
 
     Path load(String filename);
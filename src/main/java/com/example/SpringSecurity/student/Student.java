@@ -5,7 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
 
+import java.time.ZonedDateTime;
 import java.util.UUID;
 
 @Builder
@@ -24,5 +26,19 @@ public class Student {
 
     private String email;
 
+    /**
+     * Optimistic lock column, checked and bumped by the single-statement updates in StudentRepositoryCustom.
+     * Nullable so that rows created before versioning was introduced keep loading (treated as version 0).
+     */
+    @Version
+    private Long version;
+
+    /**
+     * Default sort column for paginated reads (see AppUtils.DEFAULT_PAGE_SORT)
+     */
+    @CreationTimestamp
+    @Column(updatable = false)
+    private ZonedDateTime createdAt;
+
 
 }
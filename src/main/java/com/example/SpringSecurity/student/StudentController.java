@@ -27,15 +27,29 @@ public class StudentController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseDTO> findById(@PathVariable(name = "id") UUID id) {
-        var res = studentService.findById(id);
+    public ResponseEntity<ResponseDTO> findById(@PathVariable(name = "id") UUID id,
+                                                @RequestParam(name = "fields", required = false) String fields) {
+        var res = studentService.findById(id, fields);
         return res;
     }
 
 
+    @GetMapping("/findByIds")
+    public ResponseEntity<ResponseDTO> findByIds(@RequestParam(name = "ids") String ids) {
+        return studentService.findByIds(ids);
+    }
+
+
+    @GetMapping("/search")
+    public ResponseEntity<ResponseDTO> search(@RequestParam Map<String, String> params) {
+        return studentService.searchStudents(params);
+    }
+
+
     @PostMapping("/createStudent")
-    public ResponseEntity<ResponseDTO> save(@RequestBody StudentDto studentDto) {
-        return studentService.saveStudent(studentDto);
+    public ResponseEntity<ResponseDTO> save(@RequestBody StudentDto studentDto,
+                                            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        return studentService.saveStudent(studentDto, idempotencyKey);
     }
 
     @PutMapping("updateStudent/{id}")
@@ -45,8 +59,16 @@ public class StudentController {
         return studentService.updateStudent(id, studentDto);
     }
 
+    @PatchMapping("patchStudent/{id}")
+    public ResponseEntity<ResponseDTO> patch(@PathVariable(name = "id") UUID id,
+                                             @RequestBody StudentDto studentDto) {
+        studentDto.setId(id);
+        return studentService.patchStudent(id, studentDto);
+    }
+
     @DeleteMapping("/deleteStudent/{id}")
-    public ResponseEntity<ResponseDTO> delete(@PathVariable(name = "id") UUID id) {
-      return studentService.deleteStudent(id);
+    public ResponseEntity<ResponseDTO> delete(@PathVariable(name = "id") UUID id,
+                                              @RequestParam(name = "version", required = false) Long version) {
+      return studentService.deleteStudent(id, version);
     }
 }
@@ -0,0 +1,109 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.utility.CountMode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides the total row count of the student table for paginated responses.
+ * Exact counts scan the table, so on large tables callers can ask for the planner estimate
+ * or for a count that is refreshed in the background instead.
+ */
+@Service
+@Slf4j
+public class StudentCountService {
+
+    private static final String ESTIMATE_SQL =
+            "select reltuples::bigint from pg_class where oid = to_regclass('student')";
+
+    private final StudentRepository studentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CountMode defaultMode;
+    private final long refreshIntervalMs;
+
+    private final AtomicLong cachedCount = new AtomicLong(-1);
+    private final AtomicLong lastCachedRequest = new AtomicLong();
+    private volatile boolean estimateUnsupported;
+
+    public StudentCountService(StudentRepository studentRepository,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${student.pagination.count-mode:exact}") String defaultMode,
+                               @Value("${student.pagination.cached-count-refresh-ms:30000}") long refreshIntervalMs) {
+        this.studentRepository = studentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultMode = CountMode.fromParam(defaultMode, CountMode.EXACT);
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    public CountMode getDefaultMode() {
+        return defaultMode;
+    }
+
+    /**
+     * This method returns the number of students using the requested strategy
+     * @param mode the counting strategy
+     * @return the count, exact when the requested strategy is not available
+     */
+    public long count(CountMode mode) {
+        return switch (mode) {
+            case EXACT -> studentRepository.count();
+            case ESTIMATED -> estimate();
+            case CACHED -> cached();
+        };
+    }
+
+    /**
+     * True when the given mode returns an exact figure, either because it was asked for or because of a fallback
+     */
+    public boolean isExact(CountMode mode) {
+        return mode == CountMode.EXACT || (mode == CountMode.ESTIMATED && estimateUnsupported);
+    }
+
+    private long estimate() {
+        if (!estimateUnsupported) {
+            try {
+                Long estimate = jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class);
+                // reltuples is -1 (or 0) until the table has been vacuumed or analyzed
+                if (estimate != null && estimate > 0) {
+                    return estimate;
+                }
+            } catch (Exception e) {
+                log.warn("Planner row estimates are not available, falling back to exact counts. Message -> {}", e.getMessage());
+                estimateUnsupported = true;
+            }
+        }
+        return studentRepository.count();
+    }
+
+    private long cached() {
+        lastCachedRequest.set(System.currentTimeMillis());
+        long count = cachedCount.get();
+        if (count >= 0) {
+            return count;
+        }
+        // first request, serve the estimate and let the background refresh take over
+        long initial = estimate();
+        cachedCount.compareAndSet(-1, initial);
+        return initial;
+    }
+
+    /**
+     * Refreshes the cached count, skipped while nobody has asked for a cached count recently
+     */
+    @Scheduled(fixedDelayString = "${student.pagination.cached-count-refresh-ms:30000}")
+    public void refreshCachedCount() {
+        if (System.currentTimeMillis() - lastCachedRequest.get() > 2 * refreshIntervalMs) {
+            return;
+        }
+        try {
+            cachedCount.set(studentRepository.count());
+        } catch (Exception e) {
+            log.error("Exception Occured! while refreshing the cached student count. Message -> {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.SpringSecurity.student;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses the fields= param of the read endpoints, a comma separated list of StudentDto properties.
+ *
+ * Only the requested columns are selected and the rows come back as maps holding just those properties,
+ * so unrequested columns are neither read from the database nor serialized. Names are matched ignoring
+ * case and returned in StudentDto declaration order, fields=firstName,id and fields=ID,firstname are the
+ * same request.
+ */
+public final class StudentFields {
+
+    /**
+     * StudentDto properties in declaration order, each one is a Student attribute of the same name.
+     * Listed by hand so a property added to StudentDto is not selectable until it is added here.
+     */
+    public static final List<String> ALL = List.of("id", "firstName", "lastName", "email", "version");
+
+    private static final Map<String, String> BY_LOWER_CASE = new HashMap<>();
+
+    static {
+        for (String name : ALL) {
+            BY_LOWER_CASE.put(name.toLowerCase(Locale.ROOT), name);
+        }
+    }
+
+    private StudentFields() {
+    }
+
+    /**
+     * @param fields the raw param
+     * @return the requested properties in declaration order, or null when the param is absent
+     * @throws ResponseStatusException 400 when a name is not a StudentDto property
+     */
+    public static List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        boolean[] requested = new boolean[ALL.size()];
+        List<String> unknown = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String property = BY_LOWER_CASE.get(trimmed.toLowerCase(Locale.ROOT));
+            if (property == null) {
+                unknown.add(trimmed);
+            } else {
+                requested[ALL.indexOf(property)] = true;
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unknown fields " + String.join(",", unknown) + ", expected any of " + String.join(",", ALL));
+        }
+        List<String> selected = new ArrayList<>();
+        for (int i = 0; i < requested.length; i++) {
+            if (requested[i]) {
+                selected.add(ALL.get(i));
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fields must name at least one of " + String.join(",", ALL));
+        }
+        return Collections.unmodifiableList(selected);
+    }
+
+    /**
+     * @param fields the selected properties
+     * @param values the column values in the same order
+     * @return the row to serialize
+     */
+    public static Map<String, Object> row(List<String> fields, Object[] values) {
+        Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+        for (int i = 0; i < fields.size(); i++) {
+            row.put(fields.get(i), values[i]);
+        }
+        return row;
+    }
+}
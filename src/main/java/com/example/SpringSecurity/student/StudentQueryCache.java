@@ -0,0 +1,109 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.utility.Pagination;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for the findAll endpoint.
+ *
+ * Every key is prefixed with a generation counter for the student table. Writes bump the counter,
+ * which makes all earlier entries unreachable in O(1), they are then dropped by the weight bound or the TTL.
+ */
+@Component
+@Slf4j
+public class StudentQueryCache {
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<String, Object> cache;
+    private final boolean enabled;
+
+    public StudentQueryCache(@Value("${student.cache.query.enabled:true}") boolean enabled,
+                             @Value("${student.cache.query.max-weight:50000}") long maxWeight,
+                             @Value("${student.cache.query.ttl-seconds:300}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String key, Object value) -> weigh(value))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "studentQueryCache");
+        Gauge.builder("student.query.cache.generation", generation, AtomicLong::get)
+                .description("Write generation of the student table as seen by the query cache")
+                .register(meterRegistry);
+        Gauge.builder("student.query.cache.rows", this, StudentQueryCache::rowsHeld)
+                .description("Rows held by the query cache, bounded by max-weight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result for the given query, computing it with the loader on a miss.
+     * Concurrent misses for the same query wait for a single load.
+     *
+     * @param spec the compiled findAll request
+     * @param loader computes the response data
+     * @return the response data
+     */
+    public Object get(StudentQuerySpec spec, Supplier<Object> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return cache.get(generation.get() + "|" + spec.getKey(), key -> loader.get());
+    }
+
+    /**
+     * Invalidates every cached result. Inside a transaction the generation is bumped again after commit,
+     * so a read that raced with the write cannot leave pre-commit data under the new generation.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    public double hitRate() {
+        return cache.stats().hitRate();
+    }
+
+    /**
+     * @return the total weight of the cached results, after any pending evictions ran
+     */
+    long rowsHeld() {
+        cache.cleanUp();
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    /**
+     * Weight is the number of rows held, so memory is bounded by rows rather than by number of entries
+     */
+    private static int weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        if (value instanceof Pagination pagination) {
+            return pagination.getNumberOfElements() + 1;
+        }
+        return 1;
+    }
+}
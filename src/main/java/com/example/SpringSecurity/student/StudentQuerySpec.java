@@ -0,0 +1,58 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.utility.CountMode;
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Validated, immutable form of the findAll request params, built by StudentQuerySpecCompiler.
+ *
+ * Name filters are lower-cased prefixes, email is matched exactly ignoring case and the created range is inclusive.
+ * When fields is set the rows are maps of just those StudentDto properties and the view is ignored.
+ */
+@Value
+@Builder
+public class StudentQuerySpec {
+
+    public enum View {
+        FULL,
+        SUMMARY
+    }
+
+    /**
+     * Canonical form of the spec, equal specs have equal keys whatever spelling the params used
+     */
+    String key;
+    View view;
+    /**
+     * StudentDto properties to select, see StudentFields, null for the whole view
+     */
+    List<String> fields;
+    boolean paginate;
+    /**
+     * Zero based, the request param is one based
+     */
+    int page;
+    int size;
+    Sort sort;
+    CountMode countMode;
+    String firstName;
+    String lastName;
+    String email;
+    ZonedDateTime createdFrom;
+    ZonedDateTime createdTo;
+
+    public Pageable toPageable() {
+        return PageRequest.of(page, size, sort);
+    }
+
+    public boolean hasFilters() {
+        return firstName != null || lastName != null || email != null || createdFrom != null || createdTo != null;
+    }
+}
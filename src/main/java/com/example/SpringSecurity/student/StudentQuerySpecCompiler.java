@@ -0,0 +1,177 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.utility.AppUtils;
+import com.example.SpringSecurity.utility.CountMode;
+import com.example.SpringSecurity.utility.DateTimeParser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.Attribute;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Turns findAll request params into a StudentQuerySpec.
+ *
+ * Sortable attributes come from the JPA metamodel of Student once at startup, in camel or snake case.
+ * StudentFields.ALL is checked against them there too.
+ * Compiled specs are cached by the normalised params, so a repeated request shape skips parsing entirely.
+ * Anything that cannot be honoured, an unknown sortBy or field, a bad sortDir or date, a page beyond the largest
+ * offset the queries take, is rejected with a 400 before it reaches the database. size is capped at max-page-size.
+ */
+@Component
+public class StudentQuerySpecCompiler {
+
+    private static final Set<String> PARAMS = Set.of("paginate", "page", "size", "sortBy", "sortDir", "view", "count",
+            "firstName", "lastName", "email", "createdFrom", "createdTo", "fields");
+
+    private final Map<String, String> sortableAttributes = new HashMap<>();
+    private final Cache<String, StudentQuerySpec> specs;
+    private final StudentCountService studentCountService;
+    private final int maxPageSize;
+
+    public StudentQuerySpecCompiler(EntityManagerFactory entityManagerFactory,
+                                    StudentCountService studentCountService,
+                                    @Value("${student.query-spec.cache-size:1000}") long cacheSize,
+                                    @Value("${student.query-spec.max-page-size:1000}") int maxPageSize,
+                                    MeterRegistry meterRegistry) {
+        this.studentCountService = studentCountService;
+        this.maxPageSize = maxPageSize;
+        for (Attribute<? super Student, ?> attribute : entityManagerFactory.getMetamodel().entity(Student.class).getSingularAttributes()) {
+            if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                sortableAttributes.put(attribute.getName().toLowerCase(Locale.ROOT), attribute.getName());
+                sortableAttributes.put(AppUtils.transformToSnake(attribute.getName()), attribute.getName());
+            }
+        }
+        // fields= selects these by name, a rename on Student must fail here rather than on the first request
+        for (String field : StudentFields.ALL) {
+            if (!sortableAttributes.containsValue(field)) {
+                throw new IllegalStateException("StudentFields.ALL names " + field + ", which is not a basic attribute of Student");
+            }
+        }
+        this.specs = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, specs, "studentQuerySpecs");
+    }
+
+    /**
+     * @param params the findAll request params, unknown names are ignored
+     * @return the compiled spec
+     * @throws ResponseStatusException 400 when a param has a value that cannot be applied
+     */
+    public StudentQuerySpec compile(Map<String, String> params) {
+        Map<String, String> normalised = new TreeMap<>();
+        if (params != null) {
+            params.forEach((name, value) -> {
+                if (PARAMS.contains(name) && value != null && !value.isBlank()) {
+                    normalised.put(name, value.trim());
+                }
+            });
+        }
+        List<String> parts = new ArrayList<>(normalised.size() * 2);
+        normalised.forEach((name, value) -> {
+            parts.add(name);
+            parts.add(value);
+        });
+        return specs.get(key(parts), key -> build(normalised));
+    }
+
+    private StudentQuerySpec build(Map<String, String> params) {
+        String sortBy = params.getOrDefault("sortBy", AppUtils.DEFAULT_PAGE_SORT);
+        String attribute = sortableAttributes.get(sortBy.toLowerCase(Locale.ROOT));
+        if (attribute == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot sort by " + sortBy);
+        }
+        Optional<Sort.Direction> direction = Sort.Direction.fromOptionalString(params.getOrDefault("sortDir", AppUtils.DEFAULT_PAGE_SORT_DIR));
+        if (direction.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sortDir must be asc or desc");
+        }
+
+        ZonedDateTime createdFrom = null;
+        ZonedDateTime createdTo = null;
+        for (Map.Entry<String, DateTimeParser.Result> date : DateTimeParser.parseParams(params, "createdFrom", "createdTo").entrySet()) {
+            if (!date.getValue().isValid()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, date.getKey() + ": " + date.getValue().getError());
+            }
+            if (date.getKey().equals("createdFrom")) {
+                createdFrom = date.getValue().getValue();
+            } else {
+                createdTo = date.getValue().getValue();
+            }
+        }
+        if (createdFrom != null && createdTo != null && createdFrom.isAfter(createdTo)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "createdFrom must not be after createdTo");
+        }
+
+        StudentQuerySpec.View view = params.getOrDefault("view", "full").equalsIgnoreCase("summary")
+                ? StudentQuerySpec.View.SUMMARY
+                : StudentQuerySpec.View.FULL;
+        List<String> fields = StudentFields.parse(params.get("fields"));
+        boolean paginate = !params.getOrDefault("paginate", "false").equalsIgnoreCase("false");
+        int page = AppUtils.getParamToInteger(params, AppUtils.DEFAULT_PAGE_NUMBER, "page") - 1;
+        int size = Math.min(AppUtils.getParamToInteger(params, AppUtils.DEFAULT_PAGE_SIZE, "size"), maxPageSize);
+        if ((long) page * size > Integer.MAX_VALUE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page " + (page + 1) + " is beyond the last possible page");
+        }
+        CountMode countMode = CountMode.fromParam(params.get("count"), studentCountService.getDefaultMode());
+        String firstName = lowerCase(params.get("firstName"));
+        String lastName = lowerCase(params.get("lastName"));
+        String email = lowerCase(params.get("email"));
+
+        String key = key(Arrays.asList(view.name(), String.valueOf(paginate), String.valueOf(page), String.valueOf(size),
+                attribute, direction.get().name(), countMode.name(), firstName, lastName, email,
+                createdFrom == null ? null : createdFrom.toInstant().toString(),
+                createdTo == null ? null : createdTo.toInstant().toString(), fields == null ? null : String.join(",", fields)));
+
+        return StudentQuerySpec.builder()
+                .key(key)
+                .view(view)
+                .fields(fields)
+                .paginate(paginate)
+                .page(page)
+                .size(size)
+                .sort(Sort.by(direction.get(), attribute))
+                .countMode(countMode)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .build();
+    }
+
+    /**
+     * Joins the parts with their length in front, values are user input and may contain any separator,
+     * so "a", "b|c" and "a|b", "c" must not give the same key. null is written as "-", which no length is.
+     */
+    static String key(List<String> parts) {
+        StringBuilder key = new StringBuilder();
+        for (String part : parts) {
+            if (part == null) {
+                key.append('-');
+            } else {
+                key.append(part.length()).append(':').append(part);
+            }
+        }
+        return key.toString();
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
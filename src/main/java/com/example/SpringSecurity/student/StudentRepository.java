@@ -1,11 +1,66 @@
 package com.example.SpringSecurity.student;
 
-import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.dto.StudentDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface StudentRepository extends JpaRepository<Student, UUID> {
+public interface StudentRepository extends JpaRepository<Student, UUID>, StudentRepositoryCustom {
+
+    /**
+     * Read queries below project straight into StudentDto with a constructor expression,
+     * so no managed entities (and no dirty-checking snapshots) are created for list endpoints.
+     */
+    @Query("select new com.example.SpringSecurity.dto.StudentDto(s.id, s.firstName, s.lastName, s.email, coalesce(s.version, 0)) from Student s")
+    List<StudentDto> findAllStudentDtos();
+
+    @Query(value = "select new com.example.SpringSecurity.dto.StudentDto(s.id, s.firstName, s.lastName, s.email, coalesce(s.version, 0)) from Student s",
+            countQuery = "select count(s) from Student s")
+    Page<StudentDto> findAllStudentDtos(Pageable pageable);
+
+    /**
+     * Same page without the count query, used when the total comes from StudentCountService
+     */
+    @Query("select new com.example.SpringSecurity.dto.StudentDto(s.id, s.firstName, s.lastName, s.email, coalesce(s.version, 0)) from Student s")
+    Slice<StudentDto> findStudentDtoSlice(Pageable pageable);
+
+    @Query("select new com.example.SpringSecurity.dto.StudentDto(s.id, s.firstName, s.lastName, s.email, coalesce(s.version, 0)) from Student s where s.id = :id")
+    Optional<StudentDto> findStudentDtoById(@Param("id") UUID id);
+
+    @Query("select new com.example.SpringSecurity.dto.StudentDto(s.id, s.firstName, s.lastName, s.email, coalesce(s.version, 0)) from Student s where s.id in :ids")
+    List<StudentDto> findStudentDtosByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Dynamic projections, the caller picks the view (e.g. StudentSummary) and only its columns are selected.
+     */
+    <T> List<T> findAllBy(Class<T> type);
+
+    <T> Page<T> findAllBy(Class<T> type, Pageable pageable);
+
+    <T> Slice<T> findSliceBy(Class<T> type, Pageable pageable);
+
+    /**
+     * Deletes in one statement, unlike deleteById which loads the entity first.
+     * @return the number of rows removed
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Student s where s.id = :id")
+    int deleteStudentById(@Param("id") UUID id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Student s where s.id = :id and coalesce(s.version, 0) = :version")
+    int deleteStudentById(@Param("id") UUID id, @Param("version") Long version);
 
 }
@@ -0,0 +1,76 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.dto.StudentDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository fragment for the queries that Spring Data cannot derive, implemented with the Criteria API.
+ */
+public interface StudentRepositoryCustom {
+
+    /**
+     * Issues a single UPDATE that touches only the given columns, bumps the version and returns the row
+     * as written, with UPDATE ... RETURNING on Postgres and SELECT ... FROM FINAL TABLE (UPDATE ...) on H2.
+     *
+     * @param id              the id of the student to update
+     * @param expectedVersion the version the caller last read, or null to skip the optimistic check
+     * @param changes         firstName, lastName or email to new value, only these columns are written
+     * @return the updated student, empty when the id does not exist or the version did not match
+     */
+    Optional<StudentDto> updateFields(UUID id, Long expectedVersion, Map<String, Object> changes);
+
+    /**
+     * Runs the filters, sort and view of a spec without paging.
+     *
+     * @param spec the compiled findAll request
+     * @return StudentDto rows for the full view, StudentSummary rows for the summary view, maps when fields are set
+     */
+    List<Object> findStudents(StudentQuerySpec spec);
+
+    /**
+     * Runs the filters, sort and view of a spec for the requested page. The count query is skipped
+     * when the page itself shows the total, i.e. on a short last page.
+     *
+     * @param spec the compiled findAll request
+     * @return the page with an exact total
+     */
+    Page<Object> findStudentPage(StudentQuerySpec spec);
+
+    /**
+     * Same page without the count query, used when the total comes from StudentCountService
+     *
+     * @param spec the compiled findAll request
+     * @return the rows of the page and whether another page follows
+     */
+    Slice<Object> findStudentSlice(StudentQuerySpec spec);
+
+    /**
+     * Selects only the given columns of one student.
+     *
+     * @param id     the id of the student
+     * @param fields StudentDto properties as returned by StudentFields.parse
+     * @return the requested properties of the student, empty when the id does not exist
+     */
+    Optional<Map<String, Object>> findStudentFieldsById(UUID id, List<String> fields);
+
+    /**
+     * Finds students whose first name, last name or email matches a search term. Rows where a field starts
+     * with the term come first. With fuzzy set the trigram index is used and misspelt terms also match,
+     * ranked by word similarity, otherwise only prefixes of the three fields match. Only the first
+     * StudentRepositoryCustomImpl.MAX_SEARCH_MATCHES matches found are ranked.
+     * No count query is run, the slice tells whether there is a next page.
+     *
+     * @param term     the lower-cased search term
+     * @param fuzzy    whether the trigram index of StudentSearchIndex is available
+     * @param pageable the page, its sort is ignored in favour of the rank
+     * @return the matching students of the page
+     */
+    Slice<StudentDto> searchStudents(String term, boolean fuzzy, Pageable pageable);
+}
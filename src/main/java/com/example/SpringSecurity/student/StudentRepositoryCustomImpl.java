@@ -0,0 +1,294 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.dto.StudentDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public class StudentRepositoryCustomImpl implements StudentRepositoryCustom {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * Search ranks at most this many matches, pages past them are not served. Ranking every match of a short or
+     * common term would sort a large part of the table on each request.
+     */
+    static final int MAX_SEARCH_MATCHES = 1000;
+
+    /**
+     * Word prefixes and, for terms of at least three characters, trigram similarity against
+     * StudentSearchIndex.DOCUMENT, all answered by its GIN index. The first MAX_SEARCH_MATCHES matches found
+     * are ranked, word_similarity is only computed for those.
+     */
+    private static final String FUZZY_SEARCH_MATCH = "select s.id, s.first_name, s.last_name, s.email,"
+            + " coalesce(s.version, 0) as version,"
+            + " (lower(s.first_name) like :prefix escape '\\' or lower(s.last_name) like :prefix escape '\\'"
+            + " or lower(s.email) like :prefix escape '\\') as starts_with,"
+            + " word_similarity(:term, " + StudentSearchIndex.DOCUMENT + ") as similarity"
+            + " from student s"
+            + " where " + StudentSearchIndex.DOCUMENT + " like :prefix escape '\\'"
+            + " or " + StudentSearchIndex.DOCUMENT + " like :wordPrefix escape '\\'";
+    private static final String FUZZY_SEARCH_SIMILAR = " or :term <% " + StudentSearchIndex.DOCUMENT;
+    private static final String FUZZY_SEARCH_RANK_SELECT = "select m.id, m.first_name, m.last_name, m.email, m.version from (";
+    private static final String FUZZY_SEARCH_RANK_ORDER = " limit :matches) m order by m.starts_with desc, m.similarity desc, m.id";
+    private static final int MIN_TRIGRAM_TERM_LENGTH = 3;
+
+    /**
+     * Columns updateFields may write, by StudentDto property
+     */
+    private static final Map<String, String> UPDATABLE_COLUMNS = Map.of(
+            "firstName", "first_name", "lastName", "last_name", "email", "email");
+    private static final String UPDATED_COLUMNS = "id, first_name, last_name, email, version";
+
+    private static final String PREFIX_SEARCH_JPQL = "select new com.example.SpringSecurity.dto.StudentDto(s.id, s.firstName,"
+            + " s.lastName, s.email, coalesce(s.version, 0)) from Student s"
+            + " where lower(s.firstName) like :prefix escape '\\' or lower(s.lastName) like :prefix escape '\\'"
+            + " or lower(s.email) like :prefix escape '\\'"
+            + " order by lower(s.firstName), lower(s.lastName), s.id";
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Not Transactional, that wraps this fragment in a proxy whose fields are never injected,
+     * callers run it inside their own transaction
+     */
+    @Override
+    public Optional<StudentDto> updateFields(UUID id, Long expectedVersion, Map<String, Object> changes) {
+        StringBuilder update = new StringBuilder("update student set ");
+        changes.keySet().forEach(attribute -> {
+            String column = UPDATABLE_COLUMNS.get(attribute);
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown student attribute " + attribute);
+            }
+            update.append(column).append(" = :").append(attribute).append(", ");
+        });
+        // rows written before versioning have a null version, treat them as 0
+        update.append("version = coalesce(version, 0) + 1 where id = :id");
+        if (expectedVersion != null) {
+            update.append(" and coalesce(version, 0) = :expectedVersion");
+        }
+        String sql = isPostgres()
+                ? update + " returning " + UPDATED_COLUMNS
+                : "select " + UPDATED_COLUMNS + " from final table (" + update + ")";
+
+        // typed scalars, H2 hands an untyped uuid column back as bytes
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addScalar("id", UUID.class)
+                .addScalar("first_name", String.class)
+                .addScalar("last_name", String.class)
+                .addScalar("email", String.class)
+                .addScalar("version", Long.class);
+        query.setParameter("id", id);
+        changes.forEach(query::setParameter);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] columns = (Object[]) rows.get(0);
+        return Optional.of(new StudentDto((UUID) columns[0], (String) columns[1], (String) columns[2],
+                (String) columns[3], (Long) columns[4]));
+    }
+
+    private boolean isPostgres() {
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        return dialect instanceof PostgreSQLDialect;
+    }
+
+    @Override
+    public List<Object> findStudents(StudentQuerySpec spec) {
+        return rows(spec, select(spec).getResultList());
+    }
+
+    @Override
+    public Page<Object> findStudentPage(StudentQuerySpec spec) {
+        Pageable pageable = spec.toPageable();
+        TypedQuery<Tuple> query = select(spec);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        return PageableExecutionUtils.getPage(rows(spec, query.getResultList()), pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<Object> findStudentSlice(StudentQuerySpec spec) {
+        Pageable pageable = spec.toPageable();
+        TypedQuery<Tuple> query = select(spec);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<Object> rows = rows(spec, query.getResultList());
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findStudentFieldsById(UUID id, List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Student> root = query.from(Student.class);
+        query.multiselect(selections(fields, cb, root)).where(cb.equal(root.get("id"), id));
+        List<Tuple> tuples = entityManager.createQuery(query).getResultList();
+        return tuples.isEmpty() ? Optional.empty() : Optional.of(StudentFields.row(fields, tuples.get(0).toArray()));
+    }
+
+    @Override
+    public Slice<StudentDto> searchStudents(String term, boolean fuzzy, Pageable pageable) {
+        if (pageable.getOffset() >= MAX_SEARCH_MATCHES) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        int offset = (int) pageable.getOffset();
+        // one extra row tells whether there is a next page, there is none past MAX_SEARCH_MATCHES
+        int limit = Math.min(pageable.getPageSize() + 1, MAX_SEARCH_MATCHES - offset);
+        String prefix = escapeLike(term) + "%";
+        List<StudentDto> students;
+        if (fuzzy) {
+            String match = term.length() >= MIN_TRIGRAM_TERM_LENGTH
+                    ? FUZZY_SEARCH_MATCH + FUZZY_SEARCH_SIMILAR
+                    : FUZZY_SEARCH_MATCH;
+            String sql = FUZZY_SEARCH_RANK_SELECT + match + FUZZY_SEARCH_RANK_ORDER;
+            List<?> rows = entityManager.createNativeQuery(sql)
+                    .setParameter("term", term)
+                    .setParameter("prefix", prefix)
+                    .setParameter("wordPrefix", "% " + prefix)
+                    .setParameter("matches", MAX_SEARCH_MATCHES)
+                    .setFirstResult(offset)
+                    .setMaxResults(limit)
+                    .getResultList();
+            students = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                students.add(new StudentDto((UUID) columns[0], (String) columns[1], (String) columns[2],
+                        (String) columns[3], ((Number) columns[4]).longValue()));
+            }
+        } else {
+            students = entityManager.createQuery(PREFIX_SEARCH_JPQL, StudentDto.class)
+                    .setParameter("prefix", prefix)
+                    .setFirstResult(offset)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        boolean hasNext = students.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? students.subList(0, pageable.getPageSize()) : students, pageable, hasNext);
+    }
+
+    private TypedQuery<Tuple> select(StudentQuerySpec spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Student> root = query.from(Student.class);
+
+        if (spec.getFields() != null) {
+            query.multiselect(selections(spec.getFields(), cb, root));
+        } else if (spec.getView() == StudentQuerySpec.View.SUMMARY) {
+            query.multiselect(root.get("id").alias("id"), root.get("firstName").alias("firstName"),
+                    root.get("lastName").alias("lastName"));
+        } else {
+            query.multiselect(root.get("id").alias("id"), root.get("firstName").alias("firstName"),
+                    root.get("lastName").alias("lastName"), root.get("email").alias("email"),
+                    cb.coalesce(root.<Long>get("version"), 0L).alias("version"));
+        }
+        query.where(where(spec, cb, root));
+        query.orderBy(QueryUtils.toOrders(spec.getSort(), root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private static List<Selection<?>> selections(List<String> fields, CriteriaBuilder cb, Root<Student> root) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            // rows written before versioning have a null version, StudentDto reports them as 0
+            Expression<?> column = field.equals("version") ? cb.coalesce(root.<Long>get("version"), 0L) : root.get(field);
+            selections.add(column.alias(field));
+        }
+        return selections;
+    }
+
+    private long count(StudentQuerySpec spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Student> root = query.from(Student.class);
+        query.select(cb.count(root)).where(where(spec, cb, root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] where(StudentQuerySpec spec, CriteriaBuilder cb, Root<Student> root) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (spec.getFirstName() != null) {
+            predicates.add(cb.like(cb.lower(root.get("firstName")), escapeLike(spec.getFirstName()) + "%", LIKE_ESCAPE));
+        }
+        if (spec.getLastName() != null) {
+            predicates.add(cb.like(cb.lower(root.get("lastName")), escapeLike(spec.getLastName()) + "%", LIKE_ESCAPE));
+        }
+        if (spec.getEmail() != null) {
+            predicates.add(cb.equal(cb.lower(root.get("email")), spec.getEmail()));
+        }
+        if (spec.getCreatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.<ZonedDateTime>get("createdAt"), spec.getCreatedFrom()));
+        }
+        if (spec.getCreatedTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.<ZonedDateTime>get("createdAt"), spec.getCreatedTo()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private List<Object> rows(StudentQuerySpec spec, List<Tuple> tuples) {
+        List<Object> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            if (spec.getFields() != null) {
+                rows.add(StudentFields.row(spec.getFields(), tuple.toArray()));
+            } else if (spec.getView() == StudentQuerySpec.View.SUMMARY) {
+                Map<String, Object> values = new HashMap<>(4);
+                values.put("id", tuple.get("id"));
+                values.put("firstName", tuple.get("firstName"));
+                values.put("lastName", tuple.get("lastName"));
+                rows.add(projectionFactory.createProjection(StudentSummary.class, values));
+            } else {
+                rows.add(new StudentDto(tuple.get("id", UUID.class), tuple.get("firstName", String.class),
+                        tuple.get("lastName", String.class), tuple.get("email", String.class), tuple.get("version", Long.class)));
+            }
+        }
+        return rows;
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.SpringSecurity.student;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the trigram index behind student search on Postgres.
+ *
+ * The postgresql migrations (V6, V7) create pg_trgm and a GIN index over the lower-cased first name, last name
+ * and email. A failed concurrent build leaves the index invalid and a dev schema may lack it, so it is checked
+ * here once the application is ready and rebuilt when missing or invalid. The rebuild runs concurrently on
+ * a background thread, writes keep going and startup does not wait for it on a large table. Until it is valid, and on databases without pg_trgm (H2), search only
+ * matches prefixes. Only one session builds at a time, see buildIndex.
+ */
+@Component
+@Slf4j
+public class StudentSearchIndex {
+
+    /**
+     * The indexed expression, native search queries and the V7 migration must repeat it verbatim for the planner to use the index
+     */
+    static final String DOCUMENT =
+            "lower(coalesce(s.first_name, '') || ' ' || coalesce(s.last_name, '') || ' ' || coalesce(s.email, ''))";
+
+    private static final String INDEX_NAME = "student_search_trgm_idx";
+
+    /**
+     * Key of the advisory lock held while the index is checked and built
+     */
+    static final long BUILD_LOCK = 0x5475_6465_6E74L;
+
+    private static final long BUILD_RECHECK_MS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private volatile boolean trigramReady;
+
+    public StudentSearchIndex(JdbcTemplate jdbcTemplate,
+                              @Value("${student.search.trigram-index:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * True once the trigram index exists and is valid, typo tolerant search can be used
+     */
+    public boolean isTrigramReady() {
+        return trigramReady;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread builder = new Thread(this::createIndex, "student-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    void createIndex() {
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equals(product)) {
+                log.info("Student search uses prefix matching, {} has no trigram index support", product);
+                return;
+            }
+            jdbcTemplate.execute("create extension if not exists pg_trgm");
+            // the advisory lock belongs to the session, so each attempt runs on one connection
+            Boolean valid;
+            while ((valid = jdbcTemplate.execute((ConnectionCallback<Boolean>) this::buildIndex)) == null) {
+                log.info("The student search index is being built elsewhere, checking again in {} ms", BUILD_RECHECK_MS);
+                Thread.sleep(BUILD_RECHECK_MS);
+            }
+            trigramReady = valid;
+            log.info("Student search index ready -> {}", trigramReady);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Student search index could not be created, search falls back to prefix matching. Message -> {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the index unless it is valid. Only the session holding the advisory lock builds, and an invalid
+     * index is only dropped when no build of it is in progress, a concurrent build shows its index as invalid
+     * until it finishes. The lock is not waited for, a session blocked on it holds a snapshot the concurrent
+     * build of the other node would wait on.
+     * @return whether the index is valid, null while it is being built by another session
+     */
+    Boolean buildIndex(Connection connection) throws SQLException {
+        if (indexValid(connection)) {
+            return true;
+        }
+        try (Statement statement = connection.createStatement()) {
+            if (!tryLock(statement)) {
+                return null;
+            }
+            try {
+                if (indexValid(connection)) {
+                    return true;
+                }
+                if (buildInProgress(connection)) {
+                    return null;
+                }
+                // a failed concurrent build leaves an invalid index behind that "if not exists" would keep
+                statement.execute("drop index concurrently if exists " + INDEX_NAME);
+                log.info("Building the student search index");
+                statement.execute("create index concurrently if not exists " + INDEX_NAME
+                        + " on student using gin ((" + DOCUMENT.replace("s.", "") + ") gin_trgm_ops)");
+                return indexValid(connection);
+            } finally {
+                statement.execute("select pg_advisory_unlock(" + BUILD_LOCK + ")");
+            }
+        }
+    }
+
+    private static boolean tryLock(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("select pg_try_advisory_lock(" + BUILD_LOCK + ")")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private static boolean indexValid(Connection connection) throws SQLException {
+        return exists(connection,
+                "select 1 from pg_index i join pg_class c on c.oid = i.indexrelid where c.relname = ? and i.indisvalid");
+    }
+
+    /**
+     * Builds started outside the lock, by hand or by an older deployment, are only visible here
+     */
+    private static boolean buildInProgress(Connection connection) throws SQLException {
+        return exists(connection,
+                "select 1 from pg_stat_progress_create_index p join pg_class c on c.oid = p.index_relid where c.relname = ?");
+    }
+
+    private static boolean exists(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, INDEX_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
@@ -13,9 +13,19 @@ public interface StudentService {
 
     ResponseEntity<ResponseDTO> findById(UUID id);
 
+    ResponseEntity<ResponseDTO> findById(UUID id, String fields);
+
+    ResponseEntity<ResponseDTO> findByIds(String ids);
+
+    ResponseEntity<ResponseDTO> searchStudents(Map<String, String> params);
+
     ResponseEntity<ResponseDTO> saveStudent(StudentDto studentDto);
 
+    ResponseEntity<ResponseDTO> saveStudent(StudentDto studentDto, String idempotencyKey);
+
     ResponseEntity<ResponseDTO> updateStudent(UUID id, StudentDto studentDto);
 
-    ResponseEntity<ResponseDTO> deleteStudent(UUID id);
+    ResponseEntity<ResponseDTO> patchStudent(UUID id, StudentDto studentDto);
+
+    ResponseEntity<ResponseDTO> deleteStudent(UUID id, Long version);
 }
@@ -1,23 +1,40 @@
 package com.example.SpringSecurity.student;
 
 import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.dto.StudentBulkResultDto;
 import com.example.SpringSecurity.dto.StudentDto;
+import com.example.SpringSecurity.events.StudentChangePublisher;
+import com.example.SpringSecurity.events.StudentChangeType;
+import com.example.SpringSecurity.idempotency.IdempotencyStore;
+import com.example.SpringSecurity.utility.CountMode;
 import com.example.SpringSecurity.utility.ObjectNotValidException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import static com.example.SpringSecurity.logging.LogMarkers.SUCCESS;
 import static com.example.SpringSecurity.utility.AppUtils.*;
 import static org.keycloak.TokenCategory.ADMIN;
 
@@ -26,39 +43,51 @@ import static org.keycloak.TokenCategory.ADMIN;
 @Slf4j
 public class StudentServiceImpl implements StudentService{
 
+    /**
+     * Upper bound on ids accepted by findByIds and the chunk size used for each IN query,
+     * keeps bind parameter counts well inside what the Postgres driver handles
+     */
+    private static final int MAX_BULK_IDS = 5000;
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    private static final int MAX_SEARCH_TERM_LENGTH = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final StudentRepository studentRepository;
+    private final StudentCountService studentCountService;
+    private final StudentQueryCache studentQueryCache;
+    private final StudentQuerySpecCompiler studentQuerySpecCompiler;
+    private final StudentChangePublisher studentChangePublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyStore idempotencyStore;
+    private final StudentSearchIndex studentSearchIndex;
 
     /**
      * This method is use to find all the students saved in the db
-     * @param params the query parameters we are passing
+     * @param params the query parameters we are passing (paginate, page, size, sortBy, sortDir, view=summary for name-only rows,
+     *               fields for a comma separated list of StudentDto properties, count=exact|estimated|cached for how the
+     *               page total is obtained, and the filters firstName, lastName, email, createdFrom and createdTo)
      * @return the respose onbject and the status code
      */
     @Override
     public ResponseEntity<ResponseDTO> findAllStudents(Map<String, String> params) {
-        log.info("Inside find All Students :::: Trying to fetch students per given pagination params");
+        log.debug("Inside find All Students :::: Trying to fetch students per given pagination params");
 
-        ResponseDTO response = new ResponseDTO();
+        ResponseDTO response;
         try {
+            StudentQuerySpec spec = studentQuerySpecCompiler.compile(params);
+            Object students = studentQueryCache.get(spec, () -> loadStudentsReadOnly(spec));
 
-            if (params == null || params.getOrDefault("paginate", "false").equalsIgnoreCase("false")) {
-                List<Student> students;
-                    students = studentRepository.findAll();
-                if (!students.isEmpty()) {
-                    log.info("Success! statusCode -> {} and Message -> {}", HttpStatus.OK, students);
-                    List<StudentDto> studentDtos = students.stream()
-                            .map(this::mapToStudentDto)
-                            .collect(Collectors.toList());
-                    response = getResponseDTO("Successfully retrieved all students", HttpStatus.OK, studentDtos);
-                    return new ResponseEntity<>(response, HttpStatus.valueOf(response.getStatusCode()));
-                } else {
-                    response = getResponseDTO("No record found", HttpStatus.NOT_FOUND);
-                    return new ResponseEntity<>(response, HttpStatus.valueOf(response.getStatusCode()));
-                }
+            if (students instanceof List<?> list && list.isEmpty()) {
+                response = getResponseDTO("No record found", HttpStatus.NOT_FOUND);
+            } else {
+                log.info(SUCCESS, "Success! statusCode -> {}", HttpStatus.OK);
+                log.atDebug().setMessage("Students -> {}").addArgument(() -> students).log();
+                response = getResponseDTO("Successfully retrieved students", HttpStatus.OK, students);
             }
-
         } catch (ResponseStatusException e) {
             log.error("Exception Occured! and Message -> {} and Cause -> {}", e.getMessage(), e.getReason());
-            response = getResponseDTO(e.getMessage(), HttpStatus.valueOf(e.getStatusCode().value()));
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
         } catch (Exception e) {
             log.error("Exception Occured! StatusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
             response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -68,6 +97,54 @@ public class StudentServiceImpl implements StudentService{
     }
 
 
+    /**
+     * The read-only transaction is opened on a cache miss only, so a hit takes no connection from the pool
+     */
+    private Object loadStudentsReadOnly(StudentQuerySpec spec) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> loadStudents(spec));
+    }
+
+    /**
+     * Runs the findAll queries, a full List when paginate is false and a Pagination otherwise.
+     * Requests with fields go through the Criteria queries as well, they select only those columns.
+     * Filtered requests go through the Criteria queries of the repository and always get an exact count,
+     * estimated and cached totals only describe the whole table.
+     * @param spec the compiled findAll request
+     * @return the data to put in the response
+     */
+    private Object loadStudents(StudentQuerySpec spec) {
+        boolean summaryView = spec.getView() == StudentQuerySpec.View.SUMMARY;
+        boolean selectedFields = spec.getFields() != null;
+
+        if (!spec.isPaginate()) {
+            if (spec.hasFilters() || selectedFields) {
+                return studentRepository.findStudents(spec);
+            }
+            return summaryView
+                    ? studentRepository.findAllBy(StudentSummary.class)
+                    : studentRepository.findAllStudentDtos();
+        }
+        if (spec.hasFilters()) {
+            return mapToPagination(studentRepository.findStudentPage(spec));
+        }
+
+        Pageable pageable = spec.toPageable();
+        CountMode countMode = spec.getCountMode();
+        if (countMode == CountMode.EXACT) {
+            Page<?> page = selectedFields ? studentRepository.findStudentPage(spec)
+                    : summaryView ? studentRepository.findAllBy(StudentSummary.class, pageable)
+                    : studentRepository.findAllStudentDtos(pageable);
+            return mapToPagination(page);
+        }
+        Slice<?> slice = selectedFields ? studentRepository.findStudentSlice(spec)
+                : summaryView ? studentRepository.findSliceBy(StudentSummary.class, pageable)
+                : studentRepository.findStudentDtoSlice(pageable);
+        return mapToPagination(slice, studentCountService.count(countMode), !studentCountService.isExact(countMode));
+    }
+
+
     /**
      * This method finds the student by his or her id
      * @param id represents the ID of the student we are finding
@@ -75,17 +152,34 @@ public class StudentServiceImpl implements StudentService{
      */
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<ResponseDTO> findById(UUID id) {
-        log.info("Inside find Find Student by Id ::: Trying to find student type id -> {}", id);
+        return findById(id, null);
+    }
+
+    /**
+     * This method finds the student by his or her id, selecting only the requested properties
+     * @param id represents the ID of the student we are finding
+     * @param fields comma separated StudentDto properties, null for all of them
+     * @return returns the response and the status code
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResponseDTO> findById(UUID id, String fields) {
+        log.debug("Inside find Find Student by Id ::: Trying to find student type id -> {}", id);
         ResponseDTO response;
         try {
-                var res = studentRepository.findById(id);
+                List<String> selected = StudentFields.parse(fields);
+                Optional<?> res = selected == null
+                        ? studentRepository.findStudentDtoById(id)
+                        : studentRepository.findStudentFieldsById(id, selected);
                 if (res.isPresent()) {
-                    log.info("Success! statusCode -> {} and Message -> {}", HttpStatus.OK, res);
-                    response = getResponseDTO("Successfully retreived the student with id " + id, HttpStatus.OK, res);
+                    log.info(SUCCESS, "Success! statusCode -> {} and id -> {}", HttpStatus.OK, id);
+                    log.atDebug().setMessage("Student -> {}").addArgument(res::get).log();
+                    response = getResponseDTO("Successfully retreived the student with id " + id, HttpStatus.OK, res.get());
                     return new ResponseEntity<>(response, HttpStatus.valueOf(response.getStatusCode()));
                 }
-                log.info("No record found! statusCode -> {} and Message -> {}", HttpStatus.NOT_FOUND, res);
+                log.debug("No record found! statusCode -> {} and id -> {}", HttpStatus.NOT_FOUND, id);
                 response = (getResponseDTO("Not Found!", HttpStatus.NOT_FOUND));
                 return new ResponseEntity<>(response, HttpStatus.valueOf(response.getStatusCode()));
         }
@@ -100,6 +194,105 @@ public class StudentServiceImpl implements StudentService{
     }
 
 
+    /**
+     * This method finds many students in one go, using IN queries instead of one request per id
+     * @param ids comma separated list of student ids
+     * @return the students in request order and the ids that were not found
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResponseDTO> findByIds(String ids) {
+        log.debug("Inside find Students by Ids ::: Trying to find students for the given ids");
+        ResponseDTO response;
+        try {
+            List<String> values = getListFromString(ids, String::trim);
+            Set<UUID> requested = new LinkedHashSet<>();
+            List<String> invalid = new ArrayList<>();
+            for (String value : values) {
+                try {
+                    requested.add(UUID.fromString(value));
+                } catch (IllegalArgumentException e) {
+                    invalid.add(value);
+                }
+            }
+            if (!invalid.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid ids " + String.join(",", invalid));
+            }
+            if (requested.isEmpty() || requested.size() > MAX_BULK_IDS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + MAX_BULK_IDS + " ids are required");
+            }
+
+            List<UUID> idList = new ArrayList<>(requested);
+            Map<UUID, StudentDto> found = new HashMap<>(idList.size() * 2);
+            for (int from = 0; from < idList.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+                var chunk = idList.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, idList.size()));
+                studentRepository.findStudentDtosByIdIn(chunk)
+                        .forEach(student -> found.put(student.getId(), student));
+            }
+
+            List<StudentDto> students = new ArrayList<>(found.size());
+            List<UUID> missing = new ArrayList<>();
+            for (UUID id : idList) {
+                StudentDto student = found.get(id);
+                if (student != null) {
+                    students.add(student);
+                } else {
+                    missing.add(id);
+                }
+            }
+            log.info(SUCCESS, "Success! statusCode -> {} and Message -> {} found, {} missing", HttpStatus.OK, students.size(), missing.size());
+            response = getResponseDTO("Successfully retrieved students", HttpStatus.OK, new StudentBulkResultDto(students, missing));
+        } catch (ResponseStatusException e) {
+            log.error("Exception Occured! Reason -> {} and Message -> {}", e.getCause(), e.getReason());
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
+        } catch (Exception e) {
+            log.error("Exception Occured! statusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
+            response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.getStatusCode()));
+    }
+
+
+    /**
+     * This method searches students by partial or misspelt first name, last name or email
+     * @param params q the search term, page and size (at most 100), only the first 1000 matches can be paged through
+     * @return the ranked page of matching students, its total is only exact on the last page
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResponseDTO> searchStudents(Map<String, String> params) {
+        log.debug("Inside search Students ::: Trying to search students for the given term");
+        ResponseDTO response;
+        try {
+            String term = params.get("q") == null ? "" : params.get("q").trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            if (term.isEmpty() || term.length() > MAX_SEARCH_TERM_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "q must have between 1 and " + MAX_SEARCH_TERM_LENGTH + " characters");
+            }
+            int page = getParamToInteger(params, DEFAULT_PAGE_NUMBER, "page") - 1;
+            int size = Math.min(getParamToInteger(params, DEFAULT_PAGE_SIZE, "size"), MAX_SEARCH_PAGE_SIZE);
+            if ((long) page * size >= StudentRepositoryCustomImpl.MAX_SEARCH_MATCHES) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "search only pages through the first "
+                        + StudentRepositoryCustomImpl.MAX_SEARCH_MATCHES + " matches, narrow down q");
+            }
+
+            Slice<StudentDto> slice = studentRepository.searchStudents(term, studentSearchIndex.isTrigramReady(),
+                    PageRequest.of(page, size));
+            // there is no count query, a full page only tells that at least one more row exists
+            long atLeast = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+            log.info(SUCCESS, "Success! statusCode -> {} and Message -> {} students found", HttpStatus.OK, slice.getNumberOfElements());
+            response = getResponseDTO("Successfully searched students", HttpStatus.OK, mapToPagination(slice, atLeast, true));
+        } catch (ResponseStatusException e) {
+            log.error("Exception Occured! Reason -> {} and Message -> {}", e.getCause(), e.getReason());
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
+        } catch (Exception e) {
+            log.error("Exception Occured! statusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
+            response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<>(response, HttpStatusCode.valueOf(response.getStatusCode()));
+    }
+
+
     /**
      * This method saves the student in the database
      * @param studentDto represents the object to be saved
@@ -107,7 +300,7 @@ public class StudentServiceImpl implements StudentService{
      */
     @Override
     public ResponseEntity<ResponseDTO> saveStudent(StudentDto studentDto) {
-        log.info("Inside the Save Student method ::: Trying to save a student");
+        log.debug("Inside the Save Student method ::: Trying to save a student");
         ResponseDTO respose;
 
         try {
@@ -119,9 +312,15 @@ public class StudentServiceImpl implements StudentService{
                         .lastName(studentDto.getLastName())
                         .email(studentDto.getEmail())
                         .build();
-                var record = studentRepository.save(student);
-                log.info("Success! statusCode -> {} and Message -> {}", HttpStatus.CREATED, record);
-                respose = getResponseDTO("Record Saved Successfully", HttpStatus.OK, record);
+                var record = transactionTemplate.execute(status -> {
+                    var saved = studentRepository.saveAndFlush(student);
+                    studentChangePublisher.record(saved.getId(), StudentChangeType.CREATED);
+                    return saved;
+                });
+                studentQueryCache.invalidate();
+                log.info(SUCCESS, "Success! statusCode -> {} and id -> {}", HttpStatus.CREATED, record.getId());
+                log.atDebug().setMessage("Student -> {}").addArgument(record).log();
+                respose = getResponseDTO("Record Saved Successfully", HttpStatus.OK, mapToStudentDto(record));
 //            }
 //        else {
 //                respose = getResponseDTO("No authorization to create student", HttpStatus.FORBIDDEN);
@@ -146,30 +345,109 @@ public class StudentServiceImpl implements StudentService{
         return new ResponseEntity<>(respose, HttpStatus.valueOf(respose.getStatusCode()));
     }
 
+    /**
+     * This method saves the student once per Idempotency-Key: a retry with the same key and body gets the first
+     * response back with an Idempotent-Replayed header, a duplicate sent while the first is running waits for it.
+     * Server errors are not remembered, so they can be retried.
+     * @param studentDto represents the object to be saved
+     * @param idempotencyKey the Idempotency-Key header, without one the student is saved unconditionally
+     * @return returns the response and the status code
+     */
+    @Override
+    public ResponseEntity<ResponseDTO> saveStudent(StudentDto studentDto, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return saveStudent(studentDto);
+        }
+        ResponseDTO response;
+        String key = idempotencyKey.trim();
+        try {
+            if (key.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Idempotency-Key must not be longer than " + IdempotencyStore.MAX_KEY_LENGTH + " characters");
+            }
+            String fingerprint = studentDto.getFirstName() + '\u0000' + studentDto.getLastName() + '\u0000' + studentDto.getEmail();
+            var outcome = idempotencyStore.execute(authentication().getName(), key, fingerprint,
+                    () -> saveStudent(studentDto), result -> !result.getStatusCode().is5xxServerError());
+            if (!outcome.isReplayed()) {
+                return outcome.getValue();
+            }
+            log.debug("Replaying the response for Idempotency-Key -> {}", key);
+            return ResponseEntity.status(outcome.getValue().getStatusCode())
+                    .header("Idempotent-Replayed", "true")
+                    .body(outcome.getValue().getBody());
+        } catch (ResponseStatusException e) {
+            log.error("Error Occured! statusCode -> {}, Message -> {}, Reason -> {}", e.getStatusCode(), e.getMessage(), e.getReason());
+            response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
+        }
+        return new ResponseEntity<>(response, HttpStatus.valueOf(response.getStatusCode()));
+    }
+
     /**
      * The method performs the update of student
      * @param id the id of the student to be updated
-     * @param studentDto the object we are updating
+     * @param studentDto the object we are updating, all name and email columns are replaced
      * @return returns the response and the status code of the response
      */
     @Override
     public ResponseEntity<ResponseDTO> updateStudent(UUID id, StudentDto studentDto) {
-        log.info("Inside the update student method ::: Trying to update a student");
+        log.debug("Inside the update student method ::: Trying to update a student");
+
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("firstName", studentDto.getFirstName());
+        changes.put("lastName", studentDto.getLastName());
+        changes.put("email", studentDto.getEmail());
+        return applyUpdate(id, studentDto, changes);
+    }
+
+    /**
+     * This method performs a partial update, only the non null fields of the dto are written
+     * @param id the id of the student to be updated
+     * @param studentDto the fields to change and optionally the version last read by the client
+     * @return returns the response and the status code of the response
+     */
+    @Override
+    public ResponseEntity<ResponseDTO> patchStudent(UUID id, StudentDto studentDto) {
+        log.debug("Inside the patch student method ::: Trying to patch a student");
+
+        Map<String, Object> changes = new HashMap<>();
+        if (studentDto.getFirstName() != null) {
+            changes.put("firstName", studentDto.getFirstName());
+        }
+        if (studentDto.getLastName() != null) {
+            changes.put("lastName", studentDto.getLastName());
+        }
+        if (studentDto.getEmail() != null) {
+            changes.put("email", studentDto.getEmail());
+        }
+        return applyUpdate(id, studentDto, changes);
+    }
+
+    /**
+     * Runs the update as one UPDATE ... WHERE id = ? AND version = ? statement that also returns the row as written,
+     * a second query is only made when nothing matched, to tell a missing student (404) from a stale version (409).
+     * The response carries the version to send on the next conditional update.
+     */
+    private ResponseEntity<ResponseDTO> applyUpdate(UUID id, StudentDto studentDto, Map<String, Object> changes) {
         ResponseDTO response;
 
         try {
             var isAdmin = hasAdminRole(getUserRoles());
             if (isAdmin) {
-                Student existingStudent = studentRepository.findById(id)
-                        .orElseThrow(()
-                                -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Student with Id " + id + "Does Not Exist"));
-                existingStudent.setFirstName(studentDto.getFirstName());
-                existingStudent.setLastName(studentDto.getLastName());
-                existingStudent.setEmail(studentDto.getEmail());
-
-                var record = studentRepository.save(existingStudent);
-                log.info("Success! statusCode -> {} and Message -> {}", HttpStatus.ACCEPTED, record);
-                response = getResponseDTO("Record Updated Successfully", HttpStatus.ACCEPTED, record);
+                if (changes.isEmpty()) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No fields to update");
+                }
+                StudentDto updated = transactionTemplate.execute(status -> {
+                    Optional<StudentDto> written = studentRepository.updateFields(id, studentDto.getVersion(), changes);
+                    if (written.isEmpty()) {
+                        throwMissingOrConflict(id);
+                    }
+                    studentChangePublisher.record(id, StudentChangeType.UPDATED);
+                    return written.get();
+                });
+                studentQueryCache.invalidate();
+                log.info(SUCCESS, "Success! statusCode -> {} and id -> {}", HttpStatus.ACCEPTED, id);
+                log.atDebug().setMessage("Student -> {}").addArgument(updated).log();
+                response = getResponseDTO("Record Updated Successfully", HttpStatus.ACCEPTED, updated);
             } else {
                 response = getResponseDTO("No Authorization to Update Student", HttpStatus.FORBIDDEN);
             }
@@ -190,21 +468,28 @@ public class StudentServiceImpl implements StudentService{
     /**
      * This method is used for deleting the student
      * @param id represents the id of the student
+     * @param version the version last read by the client, or null to delete unconditionally
      * @return returns the respose and the http status code of the response
      */
 
-    public ResponseEntity<ResponseDTO> deleteStudent(UUID id) {
-        log.info("Inside Delete Student Method ::: Trying To Delete Student Per Given Params");
+    public ResponseEntity<ResponseDTO> deleteStudent(UUID id, Long version) {
+        log.debug("Inside Delete Student Method ::: Trying To Delete Student Per Given Params");
         ResponseDTO response;
 
         try {
             boolean isAdmin = hasAdminRole(getUserRoles());
 //            if (isAdmin) {
-                var existingStudent = studentRepository.findById(id);
-                if (existingStudent.isPresent()) {
-                    studentRepository.deleteById(id);
-                }
-                log.info("Success! statusCode -> {} and Message -> {}", HttpStatus.OK, existingStudent);
+                transactionTemplate.executeWithoutResult(status -> {
+                    int deleted = version == null
+                            ? studentRepository.deleteStudentById(id)
+                            : studentRepository.deleteStudentById(id, version);
+                    if (deleted == 0) {
+                        throwMissingOrConflict(id);
+                    }
+                    studentChangePublisher.record(id, StudentChangeType.DELETED);
+                });
+                studentQueryCache.invalidate();
+                log.info(SUCCESS, "Success! statusCode -> {} and id -> {}", HttpStatus.OK, id);
                 response = getResponseDTO("Student deleted successfully", HttpStatus.OK);
 //            }
 
@@ -215,7 +500,7 @@ public class StudentServiceImpl implements StudentService{
         }
         catch (ResponseStatusException e) {
                 log.error("Exception Occured! Reason -> {} and Message -> {}", e.getCause(), e.getReason());
-                response = getResponseDTO(e.getMessage(), HttpStatus.valueOf(e.getStatusCode().value()));
+                response = getResponseDTO(e.getReason(), HttpStatus.valueOf(e.getStatusCode().value()));
             } catch (Exception e) {
                 log.error("Exception Occured! statusCode -> {} and Cause -> {} and Message -> {}", 500, e.getCause(), e.getMessage());
                 response = getResponseDTO(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -223,6 +508,17 @@ public class StudentServiceImpl implements StudentService{
             return new ResponseEntity<>(response,HttpStatusCode.valueOf(response.getStatusCode()));
         }
 
+    /**
+     * Called when a conditional write matched no row
+     * @param id the id of the student that was targeted
+     */
+    private void throwMissingOrConflict(UUID id) {
+        if (studentRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Student with Id " + id + " was modified by another request");
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Student with Id " + id + " Does Not Exist");
+    }
+
     /**
      * This method maps the Student entity to the student dto
      * @param student represents the instance of the student entity
@@ -236,6 +532,7 @@ public class StudentServiceImpl implements StudentService{
                 .firstName(student.getFirstName())
                 .lastName(student.getLastName())
                 .email(student.getEmail())
+                .version(student.getVersion())
                 .build();
 
         return studentDto;
@@ -0,0 +1,16 @@
+package com.example.SpringSecurity.student;
+
+import java.util.UUID;
+
+/**
+ * Closed interface projection used for list views that only need the student's name.
+ * Spring Data selects just these columns instead of hydrating the full entity.
+ */
+public interface StudentSummary {
+
+    UUID getId();
+
+    String getFirstName();
+
+    String getLastName();
+}
@@ -0,0 +1,193 @@
+package com.example.SpringSecurity.throttling;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of requests in flight at a limit that follows observed latency, in the style of
+ * the gradient algorithm of Netflix concurrency-limits.
+ *
+ * Latencies are averaged per window (at least windowNanos and 10 requests). A long moving average over
+ * the windows stands for latency without queueing; the ratio of it to the latest window is the gradient.
+ * When the latest window is slower, requests are queueing somewhere (DB pool, Postgres) and the limit
+ * shrinks proportionally, while they agree the limit grows by about its square root per window. A window
+ * with dropped requests (server errors) halves the limit's target, as a timeout would.
+ *
+ * Bulk requests may only use a share of the limit, so when capacity shrinks they are shed before reads.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        NORMAL,
+        BULK
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double bulkShare;
+    private final double tolerance;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+
+    // guarded by this
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+    private double longRtt;
+
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final double LONG_WINDOWS = 600;
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * @param initialLimit starting limit
+     * @param minLimit     the limit never goes below this, so the service always makes progress
+     * @param maxLimit     the limit never goes above this, e.g. the servlet thread pool
+     * @param bulkShare    share of the limit bulk requests may occupy, 0..1
+     * @param tolerance    how much window latency may exceed the long term one before the limit shrinks
+     * @param windowNanos  minimum time between limit updates
+     * @param nanoClock    time source, System::nanoTime outside of tests
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double bulkShare, double tolerance,
+                                      long windowNanos, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.bulkShare = bulkShare;
+        this.tolerance = tolerance;
+        this.windowNanos = windowNanos;
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return a permit to release when the request completes, or null when it must be rejected
+     */
+    public Permit tryAcquire(Priority priority) {
+        int allowed = priority == Priority.BULK
+                ? Math.max(1, (int) (limit * bulkShare))
+                : (int) limit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(nanoClock.getAsLong(), current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private synchronized void sample(long now, long rttNanos, int inFlightAtStart, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        windowDropped |= dropped;
+        if (now - windowStart < windowNanos || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+        double rtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        boolean anyDropped = windowDropped;
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+        update(rtt, maxInFlight, anyDropped);
+    }
+
+    private void update(double rtt, int maxInFlight, boolean dropped) {
+        if (longRtt == 0) {
+            longRtt = rtt;
+            return;
+        }
+        longRtt += (rtt - longRtt) / LONG_WINDOWS;
+        // after an overload the long average is inflated, let it follow back down quickly
+        if (longRtt > rtt * 2) {
+            longRtt *= 0.95;
+        }
+
+        double current = limit;
+        // with few requests in flight latency says nothing about the limit, do not grow on it
+        if (!dropped && maxInFlight < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / rtt));
+        double target = dropped
+                ? current / 2
+                : current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    /**
+     * One admitted request, released exactly once
+     */
+    public class Permit {
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * The request completed, its latency feeds the limit
+         */
+        public void success() {
+            release(false, true);
+        }
+
+        /**
+         * The request failed in a way that signals overload, e.g. a timeout or a server error
+         */
+        public void dropped() {
+            release(true, true);
+        }
+
+        /**
+         * The request ended in a way that says nothing about load, e.g. a client error
+         */
+        public void ignore() {
+            release(false, false);
+        }
+
+        private void release(boolean dropped, boolean sample) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            if (sample) {
+                long now = nanoClock.getAsLong();
+                sample(now, now - startNanos, inFlightAtStart, dropped);
+            }
+        }
+    }
+}
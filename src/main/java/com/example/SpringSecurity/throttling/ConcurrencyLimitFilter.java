@@ -0,0 +1,150 @@
+package com.example.SpringSecurity.throttling;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.utility.AppUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sheds load with 503 once the adaptive concurrency limit is reached, so a slow database makes
+ * excess requests fail fast instead of piling up on servlet threads.
+ *
+ * Runs ahead of the security chain, rejected requests cost no token verification or policy evaluation.
+ * Bulk endpoints only get a share of the limit, so reads keep going while bulk calls are shed.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final List<BulkEndpoint> bulkEndpoints = new ArrayList<>();
+    private final List<PathPattern> excludedEndpoints = new ArrayList<>();
+    private final Map<AdaptiveConcurrencyLimiter.Priority, Counter> rejections =
+            new EnumMap<>(AdaptiveConcurrencyLimiter.Priority.class);
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.limiter = new AdaptiveConcurrencyLimiter(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getBulkShare(), properties.getTolerance(), properties.getWindow().toNanos(),
+                System::nanoTime);
+        this.objectMapper = objectMapper;
+
+        PathPatternParser parser = new PathPatternParser();
+        for (ConcurrencyLimitProperties.Endpoint endpoint : properties.getBulkEndpoints()) {
+            String name = null;
+            String value = null;
+            if (endpoint.getUnlessParameter() != null) {
+                String[] parameter = endpoint.getUnlessParameter().split("=", 2);
+                name = parameter[0];
+                value = parameter.length > 1 ? parameter[1] : "";
+            }
+            bulkEndpoints.add(new BulkEndpoint(parser.parse(endpoint.getPattern()), name, value));
+        }
+        for (String pattern : properties.getExcludedEndpoints()) {
+            excludedEndpoints.add(parser.parse(pattern));
+        }
+
+        Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently in flight under the concurrency limit")
+                .register(meterRegistry);
+        for (AdaptiveConcurrencyLimiter.Priority priority : AdaptiveConcurrencyLimiter.Priority.values()) {
+            rejections.put(priority, Counter.builder("concurrency.rejected")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .description("Requests answered with 503 by the concurrency limiter")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (excludedEndpoints.isEmpty()) {
+            return false;
+        }
+        PathContainer path = pathOf(request);
+        for (PathPattern pattern : excludedEndpoints) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Priority priority = priorityOf(request);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority);
+        if (permit == null) {
+            rejections.get(priority).increment();
+            ResponseDTO body = AppUtils.getResponseDTO("Service is overloaded, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), body);
+            return;
+        }
+
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            int status = response.getStatus();
+            if (!completed || status >= 500) {
+                permit.dropped();
+            } else if (status >= 400) {
+                // rejected by security or validation before touching the database
+                permit.ignore();
+            } else {
+                permit.success();
+            }
+        }
+    }
+
+    AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    private AdaptiveConcurrencyLimiter.Priority priorityOf(HttpServletRequest request) {
+        if (bulkEndpoints.isEmpty()) {
+            return AdaptiveConcurrencyLimiter.Priority.NORMAL;
+        }
+        PathContainer path = pathOf(request);
+        for (BulkEndpoint endpoint : bulkEndpoints) {
+            if (endpoint.pattern.matches(path)) {
+                boolean exempt = endpoint.parameterName != null
+                        && endpoint.parameterValue.equalsIgnoreCase(String.valueOf(request.getParameter(endpoint.parameterName)));
+                return exempt ? AdaptiveConcurrencyLimiter.Priority.NORMAL : AdaptiveConcurrencyLimiter.Priority.BULK;
+            }
+        }
+        return AdaptiveConcurrencyLimiter.Priority.NORMAL;
+    }
+
+    private static PathContainer pathOf(HttpServletRequest request) {
+        return PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    private record BulkEndpoint(PathPattern pattern, String parameterName, String parameterValue) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.SpringSecurity.throttling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "student.concurrency-limit")
+@Data
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+
+    /**
+     * Keep at least the connection pool size, below it the database sits idle while requests are shed
+     */
+    private int minLimit = 10;
+
+    /**
+     * Should not exceed the servlet thread pool, server.tomcat.threads.max
+     */
+    private int maxLimit = 200;
+
+    /**
+     * Share of the limit bulk requests may occupy
+     */
+    private double bulkShare = 0.5;
+
+    /**
+     * How far short term latency may rise above the long term average before the limit shrinks
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * How often the limit is recomputed from the latency of the requests completed meanwhile
+     */
+    private Duration window = Duration.ofSeconds(1);
+
+    /**
+     * Requests limited as bulk, all other requests under the filter's path are normal
+     */
+    private List<Endpoint> bulkEndpoints = new ArrayList<>();
+
+    /**
+     * PathPatterns of requests that are not limited, e.g. file transfers whose duration says nothing about the database
+     */
+    private List<String> excludedEndpoints = new ArrayList<>();
+
+    @Data
+    public static class Endpoint {
+        /**
+         * PathPattern syntax, e.g. /api/v1/students/findByIds
+         */
+        private String pattern;
+        /**
+         * name=value of a request parameter that makes a matching request normal again, e.g. paginate=true
+         */
+        private String unlessParameter;
+    }
+}
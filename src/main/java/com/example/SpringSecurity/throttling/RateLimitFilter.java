@@ -0,0 +1,140 @@
+package com.example.SpringSecurity.throttling;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.security.AuthenticatedUser;
+import com.example.SpringSecurity.utility.AppUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Rate limits each client per endpoint, after BearerTokenAuthenticationFilter so the token is already verified.
+ *
+ * Clients are keyed by the azp and sub claims of their token (the client application and the user),
+ * unauthenticated requests by remote address. Over the limit the request is answered with 429 and a
+ * Retry-After header without reaching the controller.
+ *
+ * Registered in the security filter chain only, see RateLimitConfig.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final List<EndpointRule> rules = new ArrayList<>();
+    private final EndpointRule defaultRule;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = new RateLimiter(properties.getMaxKeys());
+        this.objectMapper = objectMapper;
+
+        PathPatternParser parser = new PathPatternParser();
+        List<RateLimitProperties.Endpoint> endpoints = properties.getEndpoints();
+        for (int i = 0; i < endpoints.size(); i++) {
+            RateLimitProperties.Endpoint endpoint = endpoints.get(i);
+            Set<String> methods = endpoint.getMethods().stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            rules.add(new EndpointRule(String.valueOf(i), parser.parse(endpoint.getPattern()), methods,
+                    new RateLimiter.Rule(endpoint.getRatePerSecond(), endpoint.getBurst()), endpoint.getPattern(), meterRegistry));
+        }
+        RateLimitProperties.Limit defaultLimit = properties.getDefaultLimit();
+        this.defaultRule = new EndpointRule("d", null, Set.of(),
+                new RateLimiter.Rule(defaultLimit.getRatePerSecond(), defaultLimit.getBurst()), "default", meterRegistry);
+
+        Gauge.builder("ratelimit.keys", rateLimiter, RateLimiter::estimatedSize)
+                .description("Client and rule pairs currently tracked by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointRule rule = match(request);
+        long waitNanos = rateLimiter.tryAcquire(rule.id + '|' + clientKey(request), rule.limit, System.nanoTime());
+        if (waitNanos == 0) {
+            rule.allowed.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rule.rejected.increment();
+        long retryAfterSeconds = retryAfterSeconds(waitNanos);
+        ResponseDTO body = AppUtils.getResponseDTO("Too many requests, retry after " + retryAfterSeconds + "s",
+                HttpStatus.TOO_MANY_REQUESTS);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * @return the wait rounded up to whole seconds, at least 1, as Retry-After takes no fractions
+     */
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    private EndpointRule match(HttpServletRequest request) {
+        if (rules.isEmpty()) {
+            return defaultRule;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        String method = request.getMethod();
+        for (EndpointRule rule : rules) {
+            if ((rule.methods.isEmpty() || rule.methods.contains(method)) && rule.pattern.matches(path)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        AuthenticatedUser user = AppUtils.getAuthenticatedUser();
+        if (user != null) {
+            return user.getClientId() + ':' + user.getSubject();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static class EndpointRule {
+        private final String id;
+        private final PathPattern pattern;
+        private final Set<String> methods;
+        private final RateLimiter.Rule limit;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private EndpointRule(String id, PathPattern pattern, Set<String> methods, RateLimiter.Rule limit,
+                             String name, MeterRegistry meterRegistry) {
+            this.id = id;
+            this.pattern = pattern;
+            this.methods = methods;
+            this.limit = limit;
+            this.allowed = Counter.builder("ratelimit.requests").tag("rule", name).tag("result", "allowed")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("ratelimit.requests").tag("rule", name).tag("result", "rejected")
+                    .description("Requests answered with 429 by the rate limiter")
+                    .register(meterRegistry);
+        }
+    }
+}
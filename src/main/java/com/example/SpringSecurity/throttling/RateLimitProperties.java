@@ -0,0 +1,57 @@
+package com.example.SpringSecurity.throttling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "student.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on tracked client/rule pairs, the least recently used are dropped beyond it
+     */
+    private long maxKeys = 100_000;
+
+    /**
+     * Applies to requests no endpoint rule matches
+     */
+    private Limit defaultLimit = new Limit(50, 100);
+
+    /**
+     * Checked in order, the first match applies
+     */
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    @Data
+    public static class Limit {
+        private double ratePerSecond;
+        private int burst;
+
+        public Limit() {
+        }
+
+        public Limit(double ratePerSecond, int burst) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+        }
+    }
+
+    @Data
+    public static class Endpoint {
+        /**
+         * PathPattern syntax, e.g. /api/v1/students/findAll or /api/v1/students/patchStudent/{id}
+         */
+        private String pattern;
+        /**
+         * HTTP methods the rule applies to, all when empty
+         */
+        private List<String> methods = new ArrayList<>();
+        private double ratePerSecond;
+        private int burst;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.SpringSecurity.throttling;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per key, implemented as GCRA: the whole bucket is one AtomicLong holding the theoretical
+ * arrival time of the next request in nanos, so a check is a read and a CAS with no lock and no timer.
+ *
+ * Keys live in a Caffeine cache bounded by size, so many distinct clients cannot grow it without limit.
+ * There is no idle expiry: a bucket left alone for a burst window is already as good as a new one,
+ * and a key that was evicted simply starts again with a full burst.
+ */
+public class RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(long maxKeys) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    /**
+     * @param key     identifies the bucket
+     * @param limit   rate and burst of the bucket
+     * @param nowNanos the current System.nanoTime()
+     * @return 0 when the request is allowed, otherwise the nanos to wait before it would be
+     */
+    public long tryAcquire(String key, Rule limit, long nowNanos) {
+        AtomicLong bucket = buckets.getIfPresent(key);
+        if (bucket == null) {
+            // only a new key pays for the capturing lambda
+            bucket = buckets.get(key, k -> new AtomicLong(nowNanos));
+        }
+        while (true) {
+            long theoreticalArrival = bucket.get();
+            long next = Math.max(theoreticalArrival, nowNanos) + limit.intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > limit.burstNanos) {
+                return ahead - limit.burstNanos;
+            }
+            if (bucket.compareAndSet(theoreticalArrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return the number of tracked keys, after pending evictions ran
+     */
+    public long estimatedSize() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * A rate and burst converted to the nanos GCRA works with
+     */
+    public static class Rule {
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        public Rule(double ratePerSecond, int burst) {
+            if (ratePerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate limits need a positive rate and a burst of at least 1");
+            }
+            this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+            this.burstNanos = intervalNanos * burst;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.SpringSecurity.utility;
 
 import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.security.AuthenticatedUser;
+import com.example.SpringSecurity.security.AuthenticatedUserToken;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.http.HttpStatus;
@@ -17,11 +20,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 //import org.springframework.security.oauth2.jwt.Jwt;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.function.Function;
@@ -73,7 +71,30 @@ public class AppUtils {
         if (page == null) {
             return null;
         }
-        return new Pagination(page.getContent(), page.getPageable(), (int) page.getTotalElements());
+        return new Pagination(page.getContent(), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * This method maps a slice, fetched without a count query, to a Pagination object with a separately obtained total.
+     *
+     * @param slice The Slice object containing the rows of the requested page.
+     * @param totalElements The total from an estimate or a cached count.
+     * @param estimated Whether totalElements is an estimate.
+     * @return A Pagination object, or null if the input Slice is null.
+     */
+    public static <T> Pagination mapToPagination(Slice<T> slice, long totalElements, boolean estimated) {
+        if (slice == null) {
+            return null;
+        }
+        if (!slice.hasNext()) {
+            // the last page tells us the exact total for free
+            long exact = slice.getPageable().getOffset() + slice.getNumberOfElements();
+            if (slice.getNumberOfElements() > 0 || slice.getPageable().getOffset() == 0) {
+                return new Pagination(slice.getContent(), slice.getPageable(), exact, false, false);
+            }
+        }
+        // the slice read one row past the page, that decides isLast whatever the total says
+        return new Pagination(slice.getContent(), slice.getPageable(), totalElements, estimated, slice.hasNext());
     }
 
     /**
@@ -98,41 +119,16 @@ public class AppUtils {
         return value;
     }
 
+    /**
+     * This method is used to parse an ISO date, date-time or zoned date-time, see DateTimeParser for the accepted shapes
+     * @param date The date string
+     * @return ZonedDateTime, null when the value is empty or not a valid date
+     */
     public static ZonedDateTime parseZoneDateTime(String date){
         if(date == null || date.equalsIgnoreCase("")){
             return null;
         }
-        /**
-         * Calculating if the Date was ZonedDateTime
-         */
-        try {
-            ZonedDateTime parsedZone = ZonedDateTime.parse(date);
-            return parsedZone;
-        } catch (Exception e) {
-            log.error(e.getMessage());
-        }
-
-        /**
-         * Calculating if the Date was LocalDateTime
-         */
-        try {
-            LocalDateTime parsedDateTime = LocalDateTime.parse(date);
-            return parsedDateTime.atZone(ZoneId.systemDefault());
-        } catch (Exception e) {
-            log.error(e.getMessage());
-        }
-
-        /**
-         * Calculating if the Date was LocalDate
-         */
-        try {
-            LocalDate parsedLocal = LocalDate.parse(date);
-            return parsedLocal.atStartOfDay(ZoneId.systemDefault());
-        } catch (Exception e) {
-            log.error(e.getMessage());
-        }
-
-        return null;
+        return DateTimeParser.parse(date).getValue();
     }
 
     /**
@@ -205,12 +201,7 @@ public class AppUtils {
         if(!AppUtils.isNotNullOrEmpty(clientName)){
             clientName = "biggest-api";
         }
-        Object resourceAccess = principal.getClaims().get("resource_access");
-        if(AppUtils.isNotNullOrEmpty(resourceAccess)){
-            Object clientMap = ((Map<String, Object>) resourceAccess).get(clientName);
-            return getRolesFromObject(clientMap);
-        }
-        return new ArrayList<>();
+        return authenticatedUserOf(principal).getClientRoles(clientName);
     }
 
     /**
@@ -238,11 +229,17 @@ public class AppUtils {
      * @modifiedAt
      */
     public static List<String> getRealmRoles(Jwt principal){
-        Object realmAccess = principal.getClaims().get("realm_access");
-        if(AppUtils.isNotNullOrEmpty(realmAccess)){
-            return getRolesFromObject(realmAccess);
+        return authenticatedUserOf(principal).getRealmRoles();
+    }
+
+    /**
+     * Reuses the AuthenticatedUser of the current request when the Jwt is its token, otherwise parses the Jwt
+     */
+    private static AuthenticatedUser authenticatedUserOf(Jwt principal){
+        if(authentication() instanceof AuthenticatedUserToken token && token.getToken() == principal){
+            return token.getUser();
         }
-        return new ArrayList<>();
+        return AuthenticatedUser.fromJwt(principal);
     }
 
     /**
@@ -251,13 +248,7 @@ public class AppUtils {
      * @return List of roles
      */
     public static List<String> getRolesFromObject(Object data){
-        if(AppUtils.isNotNullOrEmpty(data)){
-            Object roleList = ((Map<String, Object>  ) data).get("roles");
-            if(AppUtils.isNotNullOrEmpty(roleList)){
-                return  (List<String>) roleList;
-            }
-        }
-        return new ArrayList<>();
+        return AuthenticatedUser.rolesOf(data);
     }
 
     /**
@@ -288,15 +279,15 @@ public class AppUtils {
      * @modifiedAt
      */
     public static String transformToSnake(String value){
-        String str = "";
-        var charList = value.toCharArray();
-        for(int i=0; i < charList.length; i++){
-            if(Character.isUpperCase(charList[i])){
-                str += "_";
+        StringBuilder str = new StringBuilder(value.length() + 4);
+        for(int i=0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(Character.isUpperCase(c)){
+                str.append('_');
             }
-            str += Character.toLowerCase(charList[i]);
+            str.append(Character.toLowerCase(c));
         }
-        return str;
+        return str.toString();
     }
 
     /**
@@ -307,14 +298,8 @@ public class AppUtils {
      */
 
     public static UUID getAuthenticatedUserId() {
-        try {
-            if (authentication().isAuthenticated()){
-                return UUID.fromString(authentication().getName());
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return null;
+        AuthenticatedUser user = getAuthenticatedUser();
+        return user == null ? null : user.getId();
     }
 
     /**
@@ -324,46 +309,27 @@ public class AppUtils {
      * @createdAt 24th April 2024
      */
     public static String getAuthenticatedUserEmail(){
-        try{
-            log.info("inside getAuthenticatedUserEmail");
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if(isNotNullOrEmpty(authentication) &&
-                    authentication.isAuthenticated() &&
-                    isNotNullOrEmpty(authentication.getPrincipal())){
-                var claims = ((Jwt) authentication.getPrincipal()).getClaims();
-                if(isNotNullOrEmpty(claims)){
-                    var email = claims.getOrDefault("email", null);
-                    if(isNotNullOrEmpty(email)){
-                        return email.toString();
-                    }
-                }
-            }
-        }catch (Exception e){
-            e.printStackTrace();
-        }
-
-        return null;
+        AuthenticatedUser user = getAuthenticatedUser();
+        return user == null ? null : user.getEmail();
     }
 
     public static String getAuthenticatedUserFirstName(){
-        try{
-            log.info("inside getAuthenticatedUserName");
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if(isNotNullOrEmpty(authentication) &&
-                    authentication.isAuthenticated() &&
-                    isNotNullOrEmpty(authentication.getPrincipal())){
-                var claims = ((Jwt) authentication.getPrincipal()).getClaims();
-                if(isNotNullOrEmpty(claims)){
-                    var firstName = claims.getOrDefault("family_name", null);
-                    if(isNotNullOrEmpty(firstName)){
-                        return firstName.toString();
-                    }
-                }
-            }
-        }catch (Exception e){
-            e.printStackTrace();
-        }
+        AuthenticatedUser user = getAuthenticatedUser();
+        return user == null ? null : user.getFirstName();
+    }
 
+    /**
+     * Returns the caller of the current request, parsed once when their token was converted
+     * @return AuthenticatedUser, or null if the request is not authenticated with a JWT
+     */
+    public static AuthenticatedUser getAuthenticatedUser(){
+        Authentication authentication = authentication();
+        if(authentication instanceof AuthenticatedUserToken token){
+            return token.getUser();
+        }
+        if(authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof Jwt jwt){
+            return AuthenticatedUser.fromJwt(jwt);
+        }
         return null;
     }
 
@@ -376,12 +342,9 @@ public class AppUtils {
      */
 
     public static Collection<? extends GrantedAuthority> getUserRoles() {
-        try {
-            if (authentication().isAuthenticated()) {
-                return authentication().getAuthorities();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        Authentication authentication = authentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return authentication.getAuthorities();
         }
         return new ArrayList<>();
     }
@@ -438,6 +401,7 @@ public class AppUtils {
 
     /**
      * Helper method to get the name from a specific model by ID.
+     * getName() is read through EntityNameResolver, for more than one id use the getNames of an EntityNameResolver bean.
      *
      * @param id          The ID of the model.
      * @param entityClass The class of the model.
@@ -446,16 +410,7 @@ public class AppUtils {
      * @return The name or null if not found.
      */
     public static <T> String getName(UUID id, Class<T> entityClass, JpaRepository<T,UUID> repository) {
-        Optional<T> record = repository.findById(id);
-        if (record.isPresent()) {
-            try {
-                Method getName = entityClass.getMethod("getName");
-                return (String) getName.invoke(record.get());
-            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-                e.printStackTrace();
-            }
-        }
-        return null;
+        return repository.findById(id).map(EntityNameResolver::nameOf).orElse(null);
     }
 
 }
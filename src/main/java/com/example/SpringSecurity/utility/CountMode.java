@@ -0,0 +1,31 @@
+package com.example.SpringSecurity.utility;
+
+/**
+ * How the total element count of a paginated response is obtained.
+ *
+ * EXACT runs count(*), ESTIMATED reads the row estimate from the Postgres planner statistics
+ * and CACHED returns a count that is refreshed in the background.
+ */
+public enum CountMode {
+    EXACT,
+    ESTIMATED,
+    CACHED;
+
+    /**
+     * Resolves the count request parameter, falling back to the given default for missing or unknown values
+     * @param value the raw parameter value
+     * @param defaultMode the mode used when value is not recognised
+     * @return CountMode
+     */
+    public static CountMode fromParam(Object value, CountMode defaultMode) {
+        if (!AppUtils.isNotNullOrEmpty(value)) {
+            return defaultMode;
+        }
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.toString().trim())) {
+                return mode;
+            }
+        }
+        return defaultMode;
+    }
+}
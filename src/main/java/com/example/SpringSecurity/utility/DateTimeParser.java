@@ -0,0 +1,259 @@
+package com.example.SpringSecurity.utility;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses the ISO shapes AppUtils.parseZoneDateTime accepts in a single scan, without throwing:
+ *
+ * yyyy-MM-dd
+ * yyyy-MM-ddTHH:mm[:ss[.SSSSSSSSS]]
+ * yyyy-MM-ddTHH:mm[:ss[.SSSSSSSSS]](Z|+HH[:mm]|-HH[:mm])[[region]]
+ *
+ * Dates and date-times without an offset are placed in the given zone (the system zone by default),
+ * plain dates at the start of the day. Invalid input comes back as a Result carrying the error
+ * instead of an exception, so filters can reject bad parameters without building stack traces.
+ */
+public final class DateTimeParser {
+
+    private static final Set<String> REGION_IDS = ZoneId.getAvailableZoneIds();
+    private static final Map<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    private DateTimeParser() {
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Result {
+        private final ZonedDateTime value;
+        private final String error;
+
+        public boolean isValid() {
+            return error == null;
+        }
+
+        private static Result success(ZonedDateTime value) {
+            return new Result(value, null);
+        }
+
+        private static Result failure(String text, String reason) {
+            return new Result(null, "Invalid date '" + text + "': " + reason);
+        }
+    }
+
+    public static Result parse(String text) {
+        return parse(text, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param text the value to parse
+     * @param defaultZone zone applied when the text carries no offset
+     * @return the parsed value, or the reason it could not be parsed
+     */
+    public static Result parse(String text, ZoneId defaultZone) {
+        if (text == null || text.isEmpty()) {
+            return Result.failure(String.valueOf(text), "empty value");
+        }
+        int length = text.length();
+        if (length < 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return Result.failure(text, "expected yyyy-MM-dd");
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1
+                || day > Month.of(month).length(Year.isLeap(year))) {
+            return Result.failure(text, "no such date");
+        }
+        if (length == 10) {
+            return Result.success(LocalDateTime.of(year, month, day, 0, 0).atZone(defaultZone));
+        }
+
+        if (text.charAt(10) != 'T' || length < 16 || text.charAt(13) != ':') {
+            return Result.failure(text, "expected THH:mm after the date");
+        }
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = 0;
+        int nano = 0;
+        int position = 16;
+
+        if (position < length && text.charAt(position) == ':') {
+            second = digits(text, position + 1, 2);
+            position += 3;
+            if (position < length && text.charAt(position) == '.') {
+                int start = ++position;
+                while (position < length && position - start < 9 && isDigit(text.charAt(position))) {
+                    nano = nano * 10 + (text.charAt(position++) - '0');
+                }
+                if (position == start) {
+                    return Result.failure(text, "expected fraction digits");
+                }
+                for (int i = position - start; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Result.failure(text, "no such time");
+        }
+        LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        if (position == length) {
+            return Result.success(dateTime.atZone(defaultZone));
+        }
+
+        char sign = text.charAt(position);
+        int offsetSeconds;
+        if (sign == 'Z') {
+            offsetSeconds = 0;
+            position++;
+        } else if (sign == '+' || sign == '-') {
+            int end = position + 1;
+            while (end < length && text.charAt(end) != '[') {
+                end++;
+            }
+            offsetSeconds = offsetSeconds(text, position + 1, end);
+            if (offsetSeconds < 0) {
+                return Result.failure(text, "invalid offset");
+            }
+            if (sign == '-') {
+                offsetSeconds = -offsetSeconds;
+            }
+            position = end;
+        } else {
+            return Result.failure(text, "unexpected '" + sign + "' after the time");
+        }
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(offsetSeconds);
+        if (position == length) {
+            return Result.success(ZonedDateTime.of(dateTime, offset));
+        }
+
+        if (text.charAt(position) != '[' || text.charAt(length - 1) != ']') {
+            return Result.failure(text, "expected [zone] after the offset");
+        }
+        ZoneId zone = zone(text.substring(position + 1, length - 1));
+        if (zone == null) {
+            return Result.failure(text, "unknown zone");
+        }
+        return Result.success(ZonedDateTime.ofInstant(dateTime, offset, zone));
+    }
+
+    /**
+     * Parses several values, keeping their order
+     * @param values the values to parse
+     * @return one Result per value
+     */
+    public static List<Result> parseAll(Collection<String> values) {
+        List<Result> results = new ArrayList<>(values.size());
+        for (String value : values) {
+            results.add(parse(value));
+        }
+        return results;
+    }
+
+    /**
+     * Parses the named request parameters that are present, skipping missing or blank ones
+     * @param params the request parameters
+     * @param names the parameters holding dates
+     * @return Results keyed by parameter name
+     */
+    public static Map<String, Result> parseParams(Map<String, ?> params, String... names) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        if (params == null) {
+            return results;
+        }
+        for (String name : names) {
+            Object value = params.get(name);
+            if (value != null && !value.toString().isBlank()) {
+                results.put(name, parse(value.toString().trim()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Accepts HH, HHmm and HH:mm, returns the offset in seconds or -1
+     */
+    private static int offsetSeconds(String text, int start, int end) {
+        int hours;
+        int minutes = 0;
+        switch (end - start) {
+            case 2 -> hours = digits(text, start, 2);
+            case 4 -> {
+                hours = digits(text, start, 2);
+                minutes = digits(text, start + 2, 2);
+            }
+            case 5 -> {
+                if (text.charAt(start + 2) != ':') {
+                    return -1;
+                }
+                hours = digits(text, start, 2);
+                minutes = digits(text, start + 3, 2);
+            }
+            default -> {
+                return -1;
+            }
+        }
+        if (hours < 0 || minutes < 0 || minutes > 59) {
+            return -1;
+        }
+        int total = hours * 3600 + minutes * 60;
+        return total > MAX_OFFSET_SECONDS ? -1 : total;
+    }
+
+    private static ZoneId zone(String id) {
+        ZoneId zone = ZONES.get(id);
+        if (zone != null) {
+            return zone;
+        }
+        if (REGION_IDS.contains(id)) {
+            return ZONES.computeIfAbsent(id, ZoneId::of);
+        }
+        if (!id.isEmpty() && (id.charAt(0) == '+' || id.charAt(0) == '-' || id.equals("Z"))) {
+            int seconds = id.equals("Z") ? 0 : offsetSeconds(id, 1, id.length());
+            if (seconds >= 0) {
+                return ZONES.computeIfAbsent(id, key -> ZoneOffset.ofTotalSeconds(key.charAt(0) == '-' ? -seconds : seconds));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the value of count decimal digits at start, or -1 if any of them is not a digit or out of range
+     */
+    private static int digits(String text, int start, int count) {
+        if (start + count > text.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.SpringSecurity.utility;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves display names of an entity by id.
+ *
+ * getNames loads many names with one select id, name ... where id in (:ids) query, split per 500 ids,
+ * several name columns are joined with a space (e.g. firstName lastName). Resolved names can be kept in a
+ * small LRU cache, callers evict entries when the entity changes.
+ *
+ * nameOf reads the name of an already loaded entity through a getName() MethodHandle looked up once per class.
+ */
+@Slf4j
+public class EntityNameResolver<T> {
+
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    private static final ClassValue<Optional<MethodHandle>> NAME_ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            try {
+                MethodHandle getName = MethodHandles.publicLookup()
+                        .findVirtual(type, "getName", MethodType.methodType(String.class));
+                return Optional.of(getName.asType(MethodType.methodType(String.class, Object.class)));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    private final EntityManager entityManager;
+    private final String query;
+    private final Cache<UUID, String> cache;
+
+    /**
+     * @param entityManager  the shared entity manager
+     * @param entityClass    the entity to resolve names of
+     * @param cacheSize      number of names to keep, 0 disables the cache
+     * @param ttl            how long a cached name is trusted without an eviction
+     * @param nameAttributes the attributes that make up the name, in display order
+     */
+    public EntityNameResolver(EntityManager entityManager, Class<T> entityClass, long cacheSize, Duration ttl,
+                              String... nameAttributes) {
+        if (nameAttributes.length == 0) {
+            throw new IllegalArgumentException("At least one name attribute is required");
+        }
+        EntityType<T> entity = entityManager.getMetamodel().entity(entityClass);
+        String id = entity.getId(entity.getIdType().getJavaType()).getName();
+        StringBuilder select = new StringBuilder("select e.").append(id);
+        for (String attribute : nameAttributes) {
+            // fails fast on a misspelled attribute
+            entity.getSingularAttribute(attribute);
+            select.append(", e.").append(attribute);
+        }
+        this.query = select.append(" from ").append(entity.getName()).append(" e where e.").append(id)
+                .append(" in :ids").toString();
+        this.entityManager = entityManager;
+        this.cache = cacheSize > 0
+                ? Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(ttl).build()
+                : null;
+    }
+
+    /**
+     * Reads getName() of an entity, without reflection after the first call for its class
+     * @param entity the entity
+     * @return the name, or null if the entity is null, has no public String getName() or getName() failed
+     */
+    public static String nameOf(Object entity) {
+        if (entity == null) {
+            return null;
+        }
+        Optional<MethodHandle> getName = NAME_ACCESSORS.get(entity.getClass());
+        if (getName.isEmpty()) {
+            return null;
+        }
+        try {
+            return (String) getName.get().invokeExact(entity);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // AppUtils.getName has always answered null here
+            log.warn("getName() failed on {}", entity.getClass().getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @param id the id to resolve
+     * @return the name, or null if the id is null or does not exist
+     */
+    public String getName(UUID id) {
+        return id == null ? null : getNames(List.of(id)).get(id);
+    }
+
+    /**
+     * @param ids the ids to resolve, duplicates and nulls are ignored
+     * @return name by id, ids that do not exist are absent
+     */
+    public Map<UUID, String> getNames(Collection<UUID> ids) {
+        Map<UUID, String> names = new HashMap<>(ids.size() * 2);
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            String name = id == null || cache == null ? null : cache.getIfPresent(id);
+            if (name != null) {
+                names.put(id, name);
+            } else if (id != null) {
+                missing.add(id);
+            }
+        }
+
+        for (int from = 0; from < missing.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<UUID> chunk = missing.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, missing.size()));
+            List<Object[]> rows = entityManager.createQuery(query, Object[].class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            for (Object[] row : rows) {
+                UUID id = (UUID) row[0];
+                String name = join(row);
+                names.put(id, name);
+                if (cache != null) {
+                    cache.put(id, name);
+                }
+            }
+        }
+        return names;
+    }
+
+    public void evict(UUID id) {
+        if (cache != null && id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void evictAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private static String join(Object[] row) {
+        if (row.length == 2) {
+            return row[1] == null ? "" : row[1].toString();
+        }
+        StringBuilder name = new StringBuilder();
+        for (int i = 1; i < row.length; i++) {
+            if (row[i] != null) {
+                if (name.length() > 0) {
+                    name.append(' ');
+                }
+                name.append(row[i]);
+            }
+        }
+        return name.toString();
+    }
+}
@@ -23,10 +23,26 @@ public class Pagination {
     private final List content;
     private final int size;
     private final int page;
-    private final int totalElements;
+    private final long totalElements;
+    private final boolean estimated;
+    private final Boolean next;
     private final Sort sort;
 
-    public Pagination(List content, Pageable pageable, int totalElements) {
+    public Pagination(List content, Pageable pageable, long totalElements) {
+        this(content, pageable, totalElements, false);
+    }
+
+    /**
+     * @param estimated true when totalElements comes from planner statistics or a cached count rather than count(*)
+     */
+    public Pagination(List content, Pageable pageable, long totalElements, boolean estimated) {
+        this(content, pageable, totalElements, estimated, null);
+    }
+
+    /**
+     * @param next whether a next page exists, as a Slice knows from its extra row, null to derive it from totalElements
+     */
+    public Pagination(List content, Pageable pageable, long totalElements, boolean estimated, Boolean next) {
         this.content = content == null ? new ArrayList() : content;
         this.size = (pageable != null && pageable.isPaged() && pageable.getPageSize() >= 0)
                 ? pageable.getPageSize() : 0;
@@ -35,22 +51,27 @@ public class Pagination {
         this.sort = pageable != null && pageable.isPaged()
                 ? pageable.getSort() : null;
         this.totalElements = (pageable != null && totalElements >= 0) ? totalElements : 0;
-
+        this.estimated = estimated;
+        this.next = next;
     }
 
     public int getPage() {
         return this.page;
     }
 
-    public int getTotalPages() {
-        if (this .totalElements == 0 || this.size == 0) return 0;
-        return (int) Math.ceil(this.totalElements/Math.ceil(this.size));
+    public long getTotalPages() {
+        if (this.totalElements == 0 || this.size == 0) return 0;
+        return (this.totalElements + this.size - 1) / this.size;
     }
 
-    public int getTotalElements() {
+    public long getTotalElements() {
         return this.totalElements;
     }
 
+    public boolean isEstimated() {
+        return this.estimated;
+    }
+
     public int getNumber() {
         return this.page;
     }
@@ -80,7 +101,10 @@ public class Pagination {
     }
 
     public boolean isLast() {
-        return this.page == getTotalPages();
+        if (this.next != null) {
+            return !this.next;
+        }
+        return this.page >= getTotalPages() - 1;
     }
 
     public boolean hasNext() {
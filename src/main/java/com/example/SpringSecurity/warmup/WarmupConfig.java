@@ -0,0 +1,33 @@
+package com.example.SpringSecurity.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * Warms the service up before it reports ready, see WarmupRunner. SecurityConfig accepts the warm-up tokens
+ * while the WarmupTokens bean is active.
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+@ConditionalOnProperty(prefix = "student.warmup", name = "enabled", havingValue = "true")
+public class WarmupConfig {
+
+    @Bean
+    public WarmupTokens warmupTokens() {
+        return new WarmupTokens();
+    }
+
+    @Bean
+    public WarmupRunner warmupRunner(WarmupProperties properties, WarmupTokens warmupTokens, JwtDecoder jwtDecoder,
+                                     JdbcTemplate jdbcTemplate, Environment environment,
+                                     ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        return new WarmupRunner(properties, warmupTokens, jwtDecoder, jdbcTemplate, environment, eventPublisher, meterRegistry);
+    }
+}
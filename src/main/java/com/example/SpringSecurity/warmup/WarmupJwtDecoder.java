@@ -0,0 +1,49 @@
+package com.example.SpringSecurity.warmup;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTParser;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.text.ParseException;
+
+/**
+ * Verifies tokens signed with the warm-up key locally while the warm-up runs, every other token,
+ * and every token after the warm-up, goes to the Keycloak decoder.
+ */
+public class WarmupJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final WarmupTokens warmupTokens;
+
+    public WarmupJwtDecoder(JwtDecoder delegate, WarmupTokens warmupTokens) {
+        this.delegate = delegate;
+        this.warmupTokens = warmupTokens;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (warmupTokens.isActive() && warmupTokens.isWarmupKey(keyId(token))) {
+            return warmupTokens.decode(token);
+        }
+        return delegate.decode(token);
+    }
+
+    /**
+     * Hands a token to the Keycloak decoder, which discovers the issuer and loads the JWKS to verify it.
+     * The warm-up token itself is rejected there, only the loading matters.
+     */
+    void primeDelegate(String token) {
+        delegate.decode(token);
+    }
+
+    private static String keyId(String token) {
+        try {
+            return JWTParser.parse(token).getHeader() instanceof JWSHeader header ? header.getKeyID() : null;
+        } catch (ParseException e) {
+            throw new BadJwtException("Malformed token", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.SpringSecurity.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "student.warmup")
+@Data
+public class WarmupProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Synthetic requests sent in total, spread round robin over the endpoints
+     */
+    private int requests = 2000;
+
+    /**
+     * Readiness is reported after this long even if requests are left
+     */
+    private Duration maxDuration = Duration.ofSeconds(60);
+
+    /**
+     * Read only GET requests relative to the student API, {id} is replaced with the id of an existing student
+     */
+    private List<String> endpoints = new ArrayList<>(List.of(
+            "/findAll?paginate=true&size=20",
+            "/findAll?paginate=true&size=20&fields=id,firstName,lastName",
+            "/{id}",
+            "/findByIds?ids={id}",
+            "/search?q=st"));
+}
@@ -0,0 +1,187 @@
+package com.example.SpringSecurity.warmup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderInitializationException;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.SpringSecurity.logging.LogMarkers.SUCCESS;
+import static com.example.SpringSecurity.security.SecurityConfig.CONTEXT_PATH;
+
+/**
+ * Sends synthetic read only requests to the service's own port before it reports ready.
+ *
+ * The requests take the whole path a client request takes, Tomcat, the concurrency limiter, the security
+ * chain with JWT verification and rate limiting, the controllers, Hibernate and Jackson, so the JIT compiles
+ * it and the caches, statement plans and serializers are built before real traffic arrives. The Keycloak
+ * decoder is primed too, it discovers the issuer and loads the JWKS.
+ *
+ * Runs as an ApplicationRunner, Spring Boot reports readiness ACCEPTING_TRAFFIC only after the runners are
+ * done, so /actuator/health/readiness stays OUT_OF_SERVICE meanwhile. The time taken is recorded as
+ * warmup.duration, the first and the last pass over the endpoints as warmup.round, which shows the effect.
+ */
+@Slf4j
+public class WarmupRunner implements ApplicationRunner {
+
+    /**
+     * Tokens are spread over this many subjects, the rate limiter keeps a bucket per subject
+     */
+    private static final int SUBJECTS = 64;
+
+    private final WarmupProperties properties;
+    private final WarmupTokens warmupTokens;
+    private final JwtDecoder jwtDecoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    public WarmupRunner(WarmupProperties properties, WarmupTokens warmupTokens, JwtDecoder jwtDecoder,
+                        JdbcTemplate jdbcTemplate, Environment environment,
+                        ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.warmupTokens = warmupTokens;
+        this.jwtDecoder = jwtDecoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long started = System.nanoTime();
+        Result result = new Result();
+        try {
+            primeIssuer();
+            sendRequests(started, result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Warm-up stopped early after -> {} requests. Message -> {}", result.sent, e.getMessage());
+        } finally {
+            warmupTokens.deactivate();
+        }
+
+        long elapsed = System.nanoTime() - started;
+        Timer.builder("warmup.duration")
+                .description("Time spent warming up before reporting ready")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        if (result.firstRound > 0) {
+            roundTimer("first").record(result.firstRound, TimeUnit.NANOSECONDS);
+            roundTimer("last").record(result.lastRound, TimeUnit.NANOSECONDS);
+        }
+        result.statuses.forEach((status, count) -> Counter.builder("warmup.requests")
+                .tag("status", String.valueOf(status))
+                .description("Synthetic requests sent while warming up")
+                .register(meterRegistry)
+                .increment(count));
+        log.info(SUCCESS, "Warm-up finished in -> {} ms, requests -> {} statuses -> {} first round -> {} ms last round -> {} ms",
+                TimeUnit.NANOSECONDS.toMillis(elapsed), result.sent, result.statuses,
+                TimeUnit.NANOSECONDS.toMillis(result.firstRound), TimeUnit.NANOSECONDS.toMillis(result.lastRound));
+    }
+
+    private void primeIssuer() {
+        if (!(jwtDecoder instanceof WarmupJwtDecoder decoder)) {
+            return;
+        }
+        try {
+            decoder.primeDelegate(warmupTokens.mint("warmup"));
+        } catch (JwtDecoderInitializationException e) {
+            log.warn("Warm-up could not reach the token issuer, the first request will. Message -> {}", e.getMessage());
+        } catch (JwtException e) {
+            log.debug("Token issuer primed, the warm-up token was rejected as expected");
+        }
+    }
+
+    private void sendRequests(long started, Result result) throws IOException, InterruptedException {
+        String base = "http://127.0.0.1:" + environment.getRequiredProperty("local.server.port") + CONTEXT_PATH;
+        String id = existingStudentId();
+        List<URI> uris = new ArrayList<>();
+        for (String endpoint : properties.getEndpoints()) {
+            uris.add(URI.create(base + endpoint.replace("{id}", id)));
+        }
+        String[] tokens = new String[SUBJECTS];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = warmupTokens.mint("warmup-" + i);
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = started + properties.getMaxDuration().toNanos();
+        while (result.sent < properties.getRequests() && System.nanoTime() < deadline) {
+            long roundStarted = System.nanoTime();
+            for (URI uri : uris) {
+                if (result.sent >= properties.getRequests()) {
+                    break;
+                }
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens[result.sent % SUBJECTS])
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                        .timeout(Duration.ofSeconds(10))
+                        .GET()
+                        .build();
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                result.statuses.merge(status, 1, Integer::sum);
+                result.sent++;
+            }
+            long round = System.nanoTime() - roundStarted;
+            if (result.firstRound == 0) {
+                result.firstRound = round;
+            }
+            result.lastRound = round;
+        }
+    }
+
+    /**
+     * @return the id of any student, or a random one, which warms the same paths up to the 404
+     */
+    private String existingStudentId() {
+        List<UUID> ids = jdbcTemplate.query("select id from student fetch first 1 rows only",
+                (rs, row) -> rs.getObject(1, UUID.class));
+        return (ids.isEmpty() ? UUID.randomUUID() : ids.get(0)).toString();
+    }
+
+    private Timer roundTimer(String round) {
+        return Timer.builder("warmup.round")
+                .tag("round", round)
+                .description("Time of one pass over the warm-up endpoints")
+                .register(meterRegistry);
+    }
+
+    private static class Result {
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+        private int sent;
+        private long firstRound;
+        private long lastRound;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.SpringSecurity.warmup;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Signs the tokens of the warm-up requests with a key pair generated in memory at startup.
+ *
+ * The key never leaves the process and its tokens are only accepted until deactivate() is called,
+ * once the warm-up is over the service trusts Keycloak alone again.
+ */
+public class WarmupTokens {
+
+    static final String ISSUER = "urn:student-service:warmup";
+    static final String CLIENT_ID = "student-warmup";
+
+    private final String keyId = UUID.randomUUID().toString();
+    private final JwtEncoder encoder;
+    private final JwtDecoder decoder;
+    private volatile boolean active = true;
+
+    public WarmupTokens() {
+        KeyPair keyPair;
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            keyPair = generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("RSA is not available", e);
+        }
+        RSAKey key = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                .privateKey((RSAPrivateKey) keyPair.getPrivate())
+                .keyID(keyId)
+                .build();
+        this.encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        NimbusJwtDecoder nimbusDecoder = NimbusJwtDecoder.withPublicKey((RSAPublicKey) keyPair.getPublic()).build();
+        nimbusDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        this.decoder = nimbusDecoder;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Stops accepting warm-up tokens, for good
+     */
+    public void deactivate() {
+        active = false;
+    }
+
+    /**
+     * @return true when a token header names the warm-up key, whether or not the token verifies
+     */
+    boolean isWarmupKey(String keyIdHeader) {
+        return keyId.equals(keyIdHeader);
+    }
+
+    Jwt decode(String token) {
+        if (!active) {
+            throw new BadJwtException("Warm-up tokens are no longer accepted");
+        }
+        return decoder.decode(token);
+    }
+
+    /**
+     * @param subject the sub claim, the rate limiter keeps a bucket per subject
+     * @return a token with the realm_access roles SecurityConfig.jwtAuthenticationConverter reads
+     */
+    public String mint(String subject) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(subject)
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(600))
+                .claim("azp", CLIENT_ID)
+                .claim("realm_access", Map.of("roles", List.of("USER")))
+                .build();
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(keyId).build();
+        try {
+            return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        } catch (JwtException e) {
+            throw new IllegalStateException("Could not sign a warm-up token", e);
+        }
+    }
+}
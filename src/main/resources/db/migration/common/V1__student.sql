@@ -0,0 +1,9 @@
+-- The student table as ddl-auto update created it before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+create table if not exists student (
+    id uuid not null,
+    email varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    primary key (id)
+);
@@ -0,0 +1,5 @@
+-- Optimistic lock column, null on rows written before it and read as version 0
+alter table student add column if not exists version bigint;
+
+-- Default sort column for paginated reads, null on rows written before it
+alter table student add column if not exists created_at timestamp(6) with time zone;
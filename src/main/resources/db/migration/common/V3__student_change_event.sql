@@ -0,0 +1,12 @@
+-- Transactional outbox of student changes, relayed to the other nodes by StudentChangePublisher
+create table if not exists student_change_event (
+    id bigint generated by default as identity,
+    student_id uuid,
+    change_type varchar(255) check (change_type in ('CREATED', 'UPDATED', 'DELETED', 'BULK')),
+    origin varchar(255),
+    published boolean not null,
+    created_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+create index if not exists student_change_event_published_idx on student_change_event (published, id);
@@ -0,0 +1,25 @@
+-- CSV import jobs and their rejected rows, see StudentImportService
+create table if not exists student_import_job (
+    id uuid not null,
+    file_name varchar(255),
+    stored_file varchar(255),
+    status varchar(255) check (status in ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED')),
+    committed_row bigint not null,
+    imported bigint not null,
+    rejected bigint not null,
+    failure varchar(1000),
+    version bigint,
+    created_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+create table if not exists student_import_error (
+    id bigint generated by default as identity,
+    job_id uuid,
+    row_number bigint not null,
+    message varchar(1000),
+    primary key (id)
+);
+
+create index if not exists student_import_error_job_idx on student_import_error (job_id, row_number);
@@ -0,0 +1,13 @@
+-- CSV export jobs, see StudentExportService
+create table if not exists student_export_job (
+    id uuid not null,
+    fields varchar(255),
+    file_name varchar(255),
+    status varchar(255) check (status in ('RUNNING', 'COMPLETED', 'FAILED')),
+    exported_rows bigint not null,
+    size_bytes bigint not null,
+    failure varchar(1000),
+    created_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    primary key (id)
+);
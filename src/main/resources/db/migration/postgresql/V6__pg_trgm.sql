@@ -0,0 +1,2 @@
+-- Trigram matching behind typo tolerant student search, see StudentSearchIndex
+create extension if not exists pg_trgm;
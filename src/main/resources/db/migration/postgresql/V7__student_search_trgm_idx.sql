@@ -0,0 +1,4 @@
+-- Built concurrently, so Flyway runs this migration outside a transaction and writes keep going.
+-- The expression must match StudentSearchIndex.DOCUMENT for search queries to use the index.
+create index concurrently if not exists student_search_trgm_idx on student using gin
+    ((lower(coalesce(first_name, '') || ' ' || coalesce(last_name, '') || ' ' || coalesce(email, ''))) gin_trgm_ops);
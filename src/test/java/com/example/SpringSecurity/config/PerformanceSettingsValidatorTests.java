@@ -0,0 +1,88 @@
+package com.example.SpringSecurity.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerformanceSettingsValidatorTests {
+
+    /**
+     * The values application-perf.yml recommends, with a pool sized for this machine
+     */
+    private static MockEnvironment recommended() {
+        return new MockEnvironment()
+                .withProperty("spring.jpa.show-sql", "false")
+                .withProperty("spring.jpa.open-in-view", "false")
+                .withProperty("spring.jpa.hibernate.ddl-auto", "none")
+                .withProperty("spring.jpa.properties.hibernate.generate_statistics", "false")
+                .withProperty("spring.jpa.properties.hibernate.jdbc.batch_size", "50")
+                .withProperty("spring.jpa.properties.hibernate.order_inserts", "true")
+                .withProperty("spring.datasource.url", "jdbc:postgresql://localhost:5432/students")
+                .withProperty("spring.datasource.hikari.data-source-properties.reWriteBatchedInserts", "true")
+                .withProperty("spring.datasource.hikari.data-source-properties.prepareThreshold", "3")
+                .withProperty("spring.datasource.hikari.maximum-pool-size",
+                        String.valueOf(Runtime.getRuntime().availableProcessors() * 2))
+                .withProperty("spring.datasource.hikari.connection-timeout", "2000")
+                .withProperty("logging.level.org.hibernate.SQL", "warn");
+    }
+
+    private static PerformanceSettingsValidator validator(MockEnvironment environment) {
+        return new PerformanceSettingsValidator(environment);
+    }
+
+    @Test
+    void recommendedSettingsPass() {
+        assertThat(validator(recommended()).check()).isEmpty();
+    }
+
+    @Test
+    void springDefaultsAreReported() {
+        assertThat(validator(new MockEnvironment()).check())
+                .anyMatch(warning -> warning.startsWith("spring.jpa.open-in-view"))
+                .anyMatch(warning -> warning.startsWith("hibernate.jdbc.batch_size"))
+                .anyMatch(warning -> warning.startsWith("spring.datasource.hikari.connection-timeout=30000ms"))
+                .noneMatch(warning -> warning.startsWith("spring.jpa.show-sql"))
+                .noneMatch(warning -> warning.startsWith("reWriteBatchedInserts"));
+    }
+
+    @Test
+    void eachDriftIsReported() {
+        int tooMany = Runtime.getRuntime().availableProcessors() * 4 + 1;
+        MockEnvironment environment = recommended()
+                .withProperty("spring.jpa.show-sql", "true")
+                .withProperty("spring.jpa.hibernate.ddl-auto", "update")
+                .withProperty("spring.jpa.properties.hibernate.generate_statistics", "true")
+                .withProperty("spring.jpa.properties.hibernate.order_inserts", "false")
+                .withProperty("spring.datasource.hikari.data-source-properties.reWriteBatchedInserts", "false")
+                .withProperty("spring.datasource.hikari.data-source-properties.prepareThreshold", "0")
+                .withProperty("spring.datasource.hikari.maximum-pool-size", String.valueOf(tooMany))
+                .withProperty("logging.level.org.hibernate.SQL", "DEBUG");
+
+        assertThat(validator(environment).check())
+                .hasSize(8)
+                .anyMatch(warning -> warning.startsWith("spring.jpa.show-sql"))
+                .anyMatch(warning -> warning.startsWith("spring.jpa.hibernate.ddl-auto=update"))
+                .anyMatch(warning -> warning.startsWith("hibernate.generate_statistics"))
+                .anyMatch(warning -> warning.startsWith("hibernate.order_inserts"))
+                .anyMatch(warning -> warning.startsWith("reWriteBatchedInserts"))
+                .anyMatch(warning -> warning.startsWith("prepareThreshold"))
+                .anyMatch(warning -> warning.startsWith("spring.datasource.hikari.maximum-pool-size=" + tooMany))
+                .anyMatch(warning -> warning.startsWith("logging.level.org.hibernate.SQL=DEBUG"));
+    }
+
+    @Test
+    void schemaCreationIsReportedLikeUpdate() {
+        assertThat(validator(recommended().withProperty("spring.jpa.hibernate.ddl-auto", "create-drop")).check())
+                .containsExactly("spring.jpa.hibernate.ddl-auto=create-drop diffs the schema on every start");
+    }
+
+    @Test
+    void batchRewritingCanBeSetOnTheUrl() {
+        MockEnvironment environment = recommended()
+                .withProperty("spring.datasource.url", "jdbc:postgresql://localhost:5432/students?reWriteBatchedInserts=true")
+                .withProperty("spring.datasource.hikari.data-source-properties.reWriteBatchedInserts", "false");
+
+        assertThat(validator(environment).check()).isEmpty();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.SpringSecurity.config;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Only the dev profile lets Hibernate change the schema, the Flyway migrations build it everywhere else.
+ * The repository tests run the migrations on H2 with ddl-auto validate.
+ */
+class SchemaManagementConfigTests {
+
+    private static Object property(String file, String name) throws IOException {
+        PropertySource<?> source = new YamlPropertySourceLoader().load(file, new ClassPathResource(file)).get(0);
+        return source.getProperty(name);
+    }
+
+    private static Object ddlAuto(String file) throws IOException {
+        return property(file, "spring.jpa.hibernate.ddl-auto");
+    }
+
+    private static JdbcDataSource database() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    /**
+     * The packaged Flyway settings, on H2 the vendor folder does not exist
+     */
+    private static Flyway flyway(JdbcDataSource dataSource) throws IOException {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations(property("application.yml", "spring.flyway.locations").toString().replace("{vendor}", "h2").split(","))
+                .baselineOnMigrate((Boolean) property("application.yml", "spring.flyway.baseline-on-migrate"))
+                .load();
+    }
+
+    @Test
+    void thePackagedConfigurationLeavesTheSchemaAlone() throws IOException {
+        assertThat(ddlAuto("application.yml")).isEqualTo("none");
+        assertThat(ddlAuto("application-fast-startup.yml")).isEqualTo("none");
+        assertThat(ddlAuto("application-perf.yml")).isNull();
+    }
+
+    @Test
+    void theDevProfileUpdatesTheSchema() throws IOException {
+        assertThat(ddlAuto("application-dev.yml")).isEqualTo("update");
+    }
+
+    @Test
+    void databasesFromBeforeTheMigrationsAreUpgraded() throws IOException {
+        JdbcDataSource dataSource = database();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // what ddl-auto update left behind for the original entity
+        jdbcTemplate.execute("create table student (id uuid not null, email varchar(255), first_name varchar(255),"
+                + " last_name varchar(255), primary key (id))");
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("insert into student (id, first_name) values (?, 'Ama')", id);
+
+        flyway(dataSource).migrate();
+
+        Map<String, Object> student = jdbcTemplate.queryForMap("select first_name, version, created_at from student where id = ?", id);
+        assertThat(student).containsEntry("FIRST_NAME", "Ama").containsEntry("VERSION", null);
+        // V1 is recorded as the baseline, the student table is not created again
+        assertThat(jdbcTemplate.queryForList("select \"type\" || ' ' || \"version\" from \"flyway_schema_history\""
+                + " where \"success\" and \"version\" is not null order by \"installed_rank\"", String.class))
+                .containsExactly("BASELINE 1", "SQL 2", "SQL 3", "SQL 4", "SQL 5");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from student_export_job", Long.class)).isZero();
+    }
+
+    @Test
+    void schemasAlreadyUpdatedByHibernateAreMigratedInPlace() throws IOException {
+        JdbcDataSource dataSource = database();
+        flyway(dataSource).migrate();
+        // a database whose tables ddl-auto update created, without the history
+        new JdbcTemplate(dataSource).execute("drop table \"flyway_schema_history\"");
+
+        assertThat(flyway(dataSource).migrate().migrationsExecuted).isEqualTo(4);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.SpringSecurity.config;
+
+import com.example.SpringSecurity.dto.ResponseDTO;
+import com.example.SpringSecurity.student.StudentController;
+import com.example.SpringSecurity.student.StudentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.SpringSecurity.security.SecurityConfig.CONTEXT_PATH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The binary converters of WebConfig answer their Accept header and leave JSON the default.
+ * Security is left out, only content negotiation is under test.
+ */
+@WebMvcTest(StudentController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class WebConfigTests {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final UUID id = UUID.randomUUID();
+    private final ResponseDTO response = ResponseDTO.builder()
+            .statusCode(200)
+            .message("Successfully retreived the student with id " + id)
+            .data(Map.of("firstName", "Ama", "lastName", "Mensah"))
+            .date(ZonedDateTime.of(2024, 4, 24, 10, 15, 30, 0, ZoneOffset.UTC))
+            .build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @MockBean
+    private StudentService studentService;
+
+    @BeforeEach
+    void setUp() {
+        when(studentService.findById(any(UUID.class), isNull())).thenReturn(ResponseEntity.ok(response));
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn();
+    }
+
+    private void assertDecodesToTheResponse(MvcResult result, ObjectMapper mapper) throws Exception {
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        ResponseDTO decoded = mapper.readValue(result.getResponse().getContentAsByteArray(), ResponseDTO.class);
+
+        assertThat(decoded).usingRecursiveComparison().ignoringFields("date").isEqualTo(response);
+        assertThat(decoded.getDate()).isEqualTo(response.getDate().toInstant().atZone(decoded.getDate().getZone()));
+    }
+
+    @Test
+    void cborIsServedForItsAcceptHeader() throws Exception {
+        MvcResult result = perform(get(CONTEXT_PATH + "/" + id).accept(MediaType.APPLICATION_CBOR));
+
+        assertThat(MediaType.parseMediaType(result.getResponse().getContentType())).isEqualTo(MediaType.APPLICATION_CBOR);
+        // CBOR starts a map with major type 5, never with the '{' of JSON
+        assertThat(result.getResponse().getContentAsByteArray()[0] & 0xE0).isEqualTo(0xA0);
+        assertDecodesToTheResponse(result, objectMapperBuilder.factory(new CBORFactory()).build());
+    }
+
+    @Test
+    void smileIsServedForItsAcceptHeader() throws Exception {
+        MvcResult result = perform(get(CONTEXT_PATH + "/" + id).accept(SMILE));
+
+        assertThat(MediaType.parseMediaType(result.getResponse().getContentType())).isEqualTo(SMILE);
+        // every Smile document starts with the ":)\n" header
+        assertThat(new String(result.getResponse().getContentAsByteArray(), 0, 3)).isEqualTo(":)\n");
+        assertDecodesToTheResponse(result, objectMapperBuilder.factory(new SmileFactory()).build());
+    }
+
+    @Test
+    void jsonIsServedWithoutAnAcceptHeader() throws Exception {
+        MvcResult result = perform(get(CONTEXT_PATH + "/" + id));
+
+        assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_TYPE)).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertDecodesToTheResponse(result, objectMapperBuilder.build());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.SpringSecurity.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica, each holds a row naming itself
+ */
+class ReplicaRoutingDataSourceTests {
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica),
+                ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofSeconds(5), "select 0", 1000);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(whereAmI(readOnly)).isEqualTo("replica");
+        assertThat(whereAmI(readWrite)).isEqualTo("primary");
+    }
+
+    @Test
+    void callerReadsTheirOwnWritesFromThePrimary() {
+        authenticateAs("writer");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("insert into marker(name) values ('written')"));
+        assertThat(whereAmI(readOnly)).isEqualTo("primary");
+
+        authenticateAs("someone-else");
+        assertThat(whereAmI(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica),
+                ReplicaRoutingDataSource.Selection.LEAST_CONNECTIONS, Duration.ofSeconds(5), "select 5000", 1000);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        assertThat(whereAmI(readOnly)).isEqualTo("replica");
+        routingDataSource.checkReplicaLag();
+        assertThat(whereAmI(readOnly)).isEqualTo("primary");
+    }
+
+    private String whereAmI(TransactionTemplate transaction) {
+        return transaction.execute(status ->
+                jdbcTemplate.queryForObject("select name from marker where name <> 'written'", String.class));
+    }
+
+    private static void authenticateAs(String name) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(name, null));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate setup = new JdbcTemplate(dataSource);
+        setup.execute("create table marker(name varchar(20))");
+        setup.update("insert into marker(name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.SpringSecurity.events;
+
+import com.example.SpringSecurity.student.Student;
+import com.example.SpringSecurity.student.StudentQuerySpec;
+import com.example.SpringSecurity.student.StudentQueryCache;
+import com.example.SpringSecurity.utility.EntityNameResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * Two nodes share an InMemoryStudentChangeTransport, the Postgres payload format is checked without a database
+ */
+class StudentChangeTransportTests {
+
+    private final InMemoryStudentChangeTransport transport = new InMemoryStudentChangeTransport();
+    private final AtomicInteger loads = new AtomicInteger();
+    @SuppressWarnings("unchecked")
+    private final EntityNameResolver<Student> names = mock(EntityNameResolver.class);
+
+    private StudentQueryCache node(String nodeId) {
+        StudentQueryCache cache = new StudentQueryCache(true, 1000, 300, new SimpleMeterRegistry());
+        StudentChangePublisher publisher = new StudentChangePublisher(null, transport, nodeId, 30, 60);
+        new StudentCacheCoherenceListener(transport, publisher, cache, names).subscribe();
+        return cache;
+    }
+
+    private void read(StudentQueryCache cache) {
+        cache.get(StudentQuerySpec.builder().key("page=0").build(), () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+    }
+
+    private static PostgresStudentChangeTransport postgresTransport() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:unused");
+        return new PostgresStudentChangeTransport(dataSource);
+    }
+
+    @Test
+    void remoteChangesInvalidateTheOtherNodes() {
+        StudentQueryCache nodeA = node("node-a");
+        StudentQueryCache nodeB = node("node-b");
+        read(nodeA);
+        read(nodeB);
+
+        transport.publish(List.of(new StudentChange(UUID.randomUUID(), StudentChangeType.UPDATED, "node-a")));
+        read(nodeA);
+        read(nodeB);
+
+        // node-a invalidated its own cache on the write path, only node-b reloads
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void aFailingListenerDoesNotStopTheOthers() {
+        List<StudentChange> received = new ArrayList<>();
+        transport.subscribe(changes -> {
+            throw new IllegalStateException("broken listener");
+        });
+        transport.subscribe(received::addAll);
+
+        StudentChange change = new StudentChange(UUID.randomUUID(), StudentChangeType.DELETED, "node-a");
+        transport.publish(List.of(change));
+
+        assertThat(received).containsExactly(change);
+    }
+
+    @Test
+    void payloadsRoundTrip() {
+        List<StudentChange> changes = List.of(
+                new StudentChange(UUID.randomUUID(), StudentChangeType.CREATED, "node-a"),
+                new StudentChange(UUID.randomUUID(), StudentChangeType.UPDATED, "node-a"),
+                new StudentChange(UUID.randomUUID(), StudentChangeType.DELETED, "node-a"),
+                new StudentChange(null, StudentChangeType.BULK, "node-a"));
+
+        List<String> payloads = PostgresStudentChangeTransport.encode(changes);
+
+        assertThat(payloads).hasSize(1);
+        assertThat(PostgresStudentChangeTransport.decode(payloads.get(0))).isEqualTo(changes);
+    }
+
+    @Test
+    void largeBatchesAreSplitUnderTheNotifyLimit() {
+        List<StudentChange> changes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            changes.add(new StudentChange(UUID.randomUUID(), StudentChangeType.UPDATED, "node-a"));
+        }
+
+        List<String> payloads = PostgresStudentChangeTransport.encode(changes);
+
+        assertThat(payloads).hasSizeGreaterThan(1);
+        assertThat(payloads).allSatisfy(payload ->
+                assertThat(payload.getBytes(StandardCharsets.UTF_8).length).isLessThan(8000));
+        assertThat(payloads.stream().flatMap(payload -> PostgresStudentChangeTransport.decode(payload).stream()))
+                .containsExactlyElementsOf(changes);
+    }
+
+    @Test
+    void decodeRejectsMalformedIds() {
+        assertThat(PostgresStudentChangeTransport.decode("no separator")).isEmpty();
+        assertThatThrownBy(() -> PostgresStudentChangeTransport.decode("node-a|U:not-a-uuid,"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unreadablePayloadsDropEveryCachedEntry() {
+        PostgresStudentChangeTransport postgres = postgresTransport();
+        List<StudentChange> received = new ArrayList<>();
+        postgres.subscribe(received::addAll);
+
+        postgres.onNotification("node-b|U:not-a-uuid,");
+        UUID id = UUID.randomUUID();
+        postgres.onNotification("node-b|U:" + id + ",");
+
+        assertThat(received).containsExactly(
+                new StudentChange(null, StudentChangeType.BULK, PostgresStudentChangeTransport.RESYNC_ORIGIN),
+                new StudentChange(id, StudentChangeType.UPDATED, "node-b"));
+    }
+
+    @Test
+    void changesEvictCachedNames() {
+        node("node-a");
+        UUID updated = UUID.randomUUID();
+
+        transport.publish(List.of(
+                new StudentChange(updated, StudentChangeType.UPDATED, "node-a"),
+                new StudentChange(UUID.randomUUID(), StudentChangeType.CREATED, "node-b")));
+        verify(names).evict(updated);
+        verifyNoMoreInteractions(names);
+
+        transport.publish(List.of(new StudentChange(null, StudentChangeType.BULK, "node-b")));
+        verify(names).evictAll();
+    }
+
+    @Test
+    void resyncInvalidatesEveryNode() {
+        PostgresStudentChangeTransport postgres = postgresTransport();
+        StudentQueryCache cache = new StudentQueryCache(true, 1000, 300, new SimpleMeterRegistry());
+        StudentChangePublisher publisher = new StudentChangePublisher(null, postgres, "node-a", 30, 60);
+        new StudentCacheCoherenceListener(postgres, publisher, cache, names).subscribe();
+        read(cache);
+
+        // what the listener thread does after each successful LISTEN
+        postgres.resync();
+        read(cache);
+
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.SpringSecurity.exports;
+
+import com.example.SpringSecurity.dto.StudentExportJobDto;
+import com.example.SpringSecurity.imports.CsvReader;
+import com.example.SpringSecurity.storage.FileSystemStorage;
+import com.example.SpringSecurity.student.StudentFields;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Runs exports against H2, each range reads in its own transaction
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StudentExportServiceTests {
+
+    private static final int STUDENTS = 200;
+
+    @Autowired
+    private StudentExportJobRepository jobRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    private Path storageLocation;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private FileSystemStorage storage;
+    private StudentExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        storage = spy(new FileSystemStorage(storageLocation, storageLocation));
+        storage.init();
+        // parallelism 4, one export at a time
+        exportService = new StudentExportService(jobRepository, storage, jdbcTemplate,
+                new TransactionTemplate(transactionManager), 4, 1, 16, 120);
+
+        List<Object[]> rows = new ArrayList<>(STUDENTS);
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < STUDENTS; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), "First" + i, i % 10 == 0 ? "Mensah, \"Jr\"" : "Last" + i,
+                    "student" + i + "@example.com", now});
+        }
+        jdbcTemplate.batchUpdate("insert into student (id, first_name, last_name, email, version, created_at)"
+                + " values (?, ?, ?, ?, 0, ?)", rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        exportService.shutdown();
+        jdbcTemplate.update("delete from student_export_job");
+        jdbcTemplate.update("delete from student");
+    }
+
+    private void blockRanges() {
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(storage).newOutputStream(contains(".part"));
+    }
+
+    private UUID jobId(HttpStatus expected, String fields) {
+        var response = exportService.startExport(fields);
+        assertThat(response.getStatusCode()).isEqualTo(expected);
+        return ((StudentExportJobDto) response.getBody().getData()).getId();
+    }
+
+    private StudentExportJob job(UUID id) {
+        return jobRepository.findById(id).orElseThrow();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        boolean met;
+        while (!(met = condition.getAsBoolean()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(met).isTrue();
+    }
+
+    private List<String> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(storageLocation)) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+
+    private List<List<String>> readExport(StudentExportJob job) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(storage.load(job.getFileName()))), StandardCharsets.UTF_8))) {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Postgres orders uuids by their bytes, unsigned
+     */
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    @Test
+    void boundsSplitTheIdSpaceOnItsLeading32Bits() {
+        assertThat(StudentExportService.bounds(1)).containsExactly(null, null);
+        assertThat(StudentExportService.bounds(4)).containsExactly(null,
+                new UUID(0x40000000_00000000L, 0), new UUID(0x80000000_00000000L, 0), new UUID(0xC0000000_00000000L, 0), null);
+
+        UUID[] bounds = StudentExportService.bounds(3);
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            int ranges = 0;
+            for (int r = 0; r < 3; r++) {
+                boolean fromOk = bounds[r] == null || compareUnsigned(id, bounds[r]) >= 0;
+                boolean toOk = bounds[r + 1] == null || compareUnsigned(id, bounds[r + 1]) < 0;
+                ranges += fromOk && toOk ? 1 : 0;
+            }
+            assertThat(ranges).as(id.toString()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void recordsAreQuotedOnlyWhenTheyNeedIt() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        StudentExportService.writeRecord(writer, new Object[]{"plain", "Mensah, Ama", "say \"hi\"", "two\nlines", "cr\r", null, 42});
+
+        assertThat(writer.toString())
+                .isEqualTo("plain,\"Mensah, Ama\",\"say \"\"hi\"\"\",\"two\nlines\",\"cr\r\",,42\r\n");
+    }
+
+    @Test
+    void thePartsAreAppendedAfterTheHeaderAsOneGzipFile() throws Exception {
+        UUID id = jobId(HttpStatus.ACCEPTED, "email,id,lastName");
+        await(() -> job(id).getStatus() != StudentExportStatus.RUNNING);
+
+        StudentExportJob job = job(id);
+        assertThat(job.getStatus()).isEqualTo(StudentExportStatus.COMPLETED);
+        assertThat(job.getExportedRows()).isEqualTo(STUDENTS);
+        assertThat(job.getSizeBytes()).isEqualTo(Files.size(storage.load(job.getFileName())));
+        // the part files are gone, only the assembled file is left
+        assertThat(storedFiles()).containsExactly(job.getFileName());
+
+        List<List<String>> records = readExport(job);
+        assertThat(records.get(0)).containsExactly("id", "lastName", "email");
+        assertThat(records).hasSize(STUDENTS + 1);
+        Set<String> ids = new HashSet<>();
+        for (List<String> record : records.subList(1, records.size())) {
+            assertThat(record).hasSize(3);
+            ids.add(record.get(0));
+        }
+        assertThat(ids).hasSize(STUDENTS);
+        assertThat(records.stream().filter(record -> record.get(1).equals("Mensah, \"Jr\""))).hasSize(STUDENTS / 10);
+    }
+
+    @Test
+    void allFieldsAreExportedWhenNoneAreNamed() throws Exception {
+        UUID id = jobId(HttpStatus.ACCEPTED, null);
+        await(() -> job(id).getStatus() != StudentExportStatus.RUNNING);
+
+        assertThat(readExport(job(id)).get(0)).isEqualTo(StudentFields.ALL);
+    }
+
+    @Test
+    void exportsPastMaxConcurrentAreTurnedAway() throws Exception {
+        blockRanges();
+        UUID first = jobId(HttpStatus.ACCEPTED, null);
+
+        assertThat(exportService.startExport(null).getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(jobRepository.count()).isEqualTo(1);
+
+        release.countDown();
+        await(() -> job(first).getStatus() == StudentExportStatus.COMPLETED);
+        // the permit is handed back once the export is done
+        await(() -> exportService.startExport(null).getStatusCode() == HttpStatus.ACCEPTED);
+        await(() -> jobRepository.findAll().stream().noneMatch(job -> job.getStatus() == StudentExportStatus.RUNNING));
+    }
+
+    @Test
+    void sweepFailsExportsAbandonedByAStoppedNode() throws Exception {
+        UUID abandoned = UUID.randomUUID();
+        jobRepository.save(StudentExportJob.builder()
+                .id(abandoned)
+                .fields("id")
+                .fileName("student-export-" + abandoned + ".csv.gz")
+                .status(StudentExportStatus.RUNNING)
+                .updatedAt(ZonedDateTime.now().minusMinutes(10))
+                .build());
+        Files.writeString(storage.load("student-export-" + abandoned + ".csv.gz.part0"), "left behind");
+
+        blockRanges();
+        UUID running = jobId(HttpStatus.ACCEPTED, null);
+        // as if this node had been slow to send its heartbeat
+        jdbcTemplate.update("update student_export_job set updated_at = ? where id = ?",
+                OffsetDateTime.now().minusMinutes(10), running);
+
+        exportService.sweep();
+
+        assertThat(job(abandoned).getStatus()).isEqualTo(StudentExportStatus.FAILED);
+        assertThat(job(abandoned).getFailure()).contains("abandoned");
+        assertThat(storedFiles()).noneMatch(name -> name.startsWith("student-export-" + abandoned));
+        assertThat(job(running).getStatus()).isEqualTo(StudentExportStatus.RUNNING);
+        assertThat(job(running).getUpdatedAt()).isAfter(ZonedDateTime.now().minusMinutes(1));
+
+        release.countDown();
+        await(() -> job(running).getStatus() == StudentExportStatus.COMPLETED);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.SpringSecurity.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTests {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    private static IdempotencyStore store(long maxEntries, long waitTimeoutMs) {
+        return new IdempotencyStore(maxEntries, 3600, waitTimeoutMs, new SimpleMeterRegistry());
+    }
+
+    private Supplier<Integer> status(int status) {
+        return () -> {
+            runs.incrementAndGet();
+            return status;
+        };
+    }
+
+    private Supplier<Integer> blockedUntil(CountDownLatch started, CountDownLatch release, int status) {
+        return () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return status;
+        };
+    }
+
+    private static boolean below500(Integer status) {
+        return status < 500;
+    }
+
+    private static HttpStatus statusOf(Runnable execute) {
+        try {
+            execute.run();
+        } catch (ResponseStatusException e) {
+            return HttpStatus.valueOf(e.getStatusCode().value());
+        }
+        return HttpStatus.OK;
+    }
+
+    @Test
+    void retriesReplayTheFirstOutcome() {
+        IdempotencyStore store = store(100, 1000);
+
+        IdempotencyStore.Outcome<Integer> first = store.execute("ama", "key-1", "body", status(201), IdempotencyStoreTests::below500);
+        IdempotencyStore.Outcome<Integer> retry = store.execute("ama", "key-1", "body", status(201), IdempotencyStoreTests::below500);
+
+        assertThat(first.isReplayed()).isFalse();
+        assertThat(retry.isReplayed()).isTrue();
+        assertThat(retry.getValue()).isEqualTo(201);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void keysOfDifferentCallersDoNotCollide() {
+        IdempotencyStore store = store(100, 1000);
+
+        store.execute("ama", "key-1", "body", status(201), IdempotencyStoreTests::below500);
+        IdempotencyStore.Outcome<Integer> other = store.execute("kofi", "key-1", "body", status(201), IdempotencyStoreTests::below500);
+
+        assertThat(other.isReplayed()).isFalse();
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void aKeyReusedForAnotherRequestIsRejected() {
+        IdempotencyStore store = store(100, 1000);
+        store.execute("ama", "key-1", "body", status(201), IdempotencyStoreTests::below500);
+
+        assertThat(statusOf(() -> store.execute("ama", "key-1", "other body", status(201), IdempotencyStoreTests::below500)))
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void serverErrorsAndExceptionsAreForgotten() {
+        IdempotencyStore store = store(100, 1000);
+
+        store.execute("ama", "key-1", "body", status(500), IdempotencyStoreTests::below500);
+        assertThatThrownBy(() -> store.execute("ama", "key-1", "body", () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("database down");
+        }, IdempotencyStoreTests::below500)).isInstanceOf(IllegalStateException.class);
+        IdempotencyStore.Outcome<Integer> retry = store.execute("ama", "key-1", "body", status(201), IdempotencyStoreTests::below500);
+
+        assertThat(retry.isReplayed()).isFalse();
+        assertThat(runs).hasValue(3);
+    }
+
+    @Test
+    void aDuplicateWaitsForTheRunningRequest() throws Exception {
+        IdempotencyStore store = store(100, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<IdempotencyStore.Outcome<Integer>> first = executor.submit(() ->
+                store.execute("ama", "key-1", "body", blockedUntil(started, release, 201), IdempotencyStoreTests::below500));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<IdempotencyStore.Outcome<Integer>> duplicate = executor.submit(() ->
+                store.execute("ama", "key-1", "body", status(201), IdempotencyStoreTests::below500));
+
+        // a different body is rejected while the first is still running
+        assertThat(statusOf(() -> store.execute("ama", "key-1", "other body", status(201), IdempotencyStoreTests::below500)))
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).isReplayed()).isFalse();
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).isReplayed()).isTrue();
+        assertThat(duplicate.get().getValue()).isEqualTo(201);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void aDuplicateGivesUpAfterTheWaitTimeout() throws Exception {
+        IdempotencyStore store = store(100, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> store.execute("ama", "key-1", "body", blockedUntil(started, release, 201), IdempotencyStoreTests::below500));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(statusOf(() -> store.execute("ama", "key-1", "body", status(201), IdempotencyStoreTests::below500)))
+                .isEqualTo(HttpStatus.CONFLICT);
+        release.countDown();
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void aBurstOfOtherKeysCannotEvictARunningRequest() throws Exception {
+        IdempotencyStore store = store(10, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<IdempotencyStore.Outcome<Integer>> first = executor.submit(() ->
+                store.execute("ama", "key-1", "body", blockedUntil(started, release, 201), IdempotencyStoreTests::below500));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 1000; i++) {
+            store.execute("kofi", "burst-" + i, "body", () -> 201, IdempotencyStoreTests::below500);
+        }
+        Future<IdempotencyStore.Outcome<Integer>> duplicate = executor.submit(() ->
+                store.execute("ama", "key-1", "body", status(201), IdempotencyStoreTests::below500));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).isReplayed()).isFalse();
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).isReplayed()).isTrue();
+        assertThat(runs).hasValue(1);
+    }
+}
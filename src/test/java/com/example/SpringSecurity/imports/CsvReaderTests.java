@@ -0,0 +1,110 @@
+package com.example.SpringSecurity.imports;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTests {
+
+    private static List<List<String>> readAll(Reader input) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(input)) {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        return readAll(new StringReader(csv));
+    }
+
+    /**
+     * Hands out one character per read, so every record crosses the buffer boundary
+     */
+    private static Reader trickling(String csv) {
+        return new Reader() {
+            private int position;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                if (position == csv.length()) {
+                    return -1;
+                }
+                buffer[offset] = csv.charAt(position++);
+                return 1;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    void plainFieldsAreSplitOnCommas() throws IOException {
+        assertThat(readAll("firstName,lastName,email\nAma,Mensah,ama@example.com\n"))
+                .containsExactly(List.of("firstName", "lastName", "email"), List.of("Ama", "Mensah", "ama@example.com"));
+    }
+
+    @Test
+    void quotedFieldsKeepCommasAndDoubledQuotes() throws IOException {
+        assertThat(readAll("\"Mensah, Ama\",\"say \"\"hi\"\"\",\"\"\n"))
+                .containsExactly(List.of("Mensah, Ama", "say \"hi\"", ""));
+    }
+
+    @Test
+    void quotedFieldsKeepLineBreaks() throws IOException {
+        List<List<String>> records = readAll("a,\"line one\r\nline two\nline three\",c\nd,e,f");
+
+        assertThat(records).containsExactly(List.of("a", "line one\r\nline two\nline three", "c"), List.of("d", "e", "f"));
+    }
+
+    @Test
+    void crlfLfAndALoneCrAllEndARecord() throws IOException {
+        assertThat(readAll("a,b\r\nc,d\ne,f\rg,h\r"))
+                .containsExactly(List.of("a", "b"), List.of("c", "d"), List.of("e", "f"), List.of("g", "h"));
+    }
+
+    @Test
+    void aLoneCrAcrossTheBufferBoundaryKeepsTheNextRecord() throws IOException {
+        assertThat(readAll(trickling("a,b\rc,d\r\ne,f")))
+                .containsExactly(List.of("a", "b"), List.of("c", "d"), List.of("e", "f"));
+    }
+
+    @Test
+    void aByteOrderMarkIsDroppedOnlyAtTheStart() throws IOException {
+        assertThat(readAll("\uFEFFfirstName,email\n\uFEFFAma,x\n"))
+                .containsExactly(List.of("firstName", "email"), List.of("\uFEFFAma", "x"));
+        assertThat(readAll("\uFEFF")).isEmpty();
+    }
+
+    @Test
+    void recordNumbersCountBlankLinesAndNotEmbeddedBreaks() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("header\n\n\"two\nlines\"\nlast"))) {
+            reader.next();
+            assertThat(reader.next()).containsExactly("");
+            assertThat(reader.getRecordNumber()).isEqualTo(2);
+            assertThat(reader.next()).containsExactly("two\nlines");
+            assertThat(reader.next()).containsExactly("last");
+            assertThat(reader.getRecordNumber()).isEqualTo(4);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void anUnterminatedQuoteIsAnError() {
+        assertThatThrownBy(() -> readAll("a,b\n\"open,c\n"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("row 2");
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.SpringSecurity.imports;
+
+import com.example.SpringSecurity.events.StudentChangePublisher;
+import com.example.SpringSecurity.storage.StorageService;
+import com.example.SpringSecurity.student.StudentQueryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs imports against H2 with batches of two rows, each batch commits for real
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StudentImportServiceTests {
+
+    private static final String CSV = String.join("\r\n",
+            "First Name,last_name,EMAIL,notes",
+            "Ama,Mensah,ama@example.com,",
+            "Kofi,Asante,kofi@example.com,",
+            "",
+            "Esi,Owusu,not-an-email,",
+            "Yaw,Boateng,yaw@example.com,",
+            ",,,",
+            "Abena,Ofori,abena@example.com,",
+            "Kwesi,Appiah,kwesi@example.com,");
+
+    @Autowired
+    private StudentImportJobRepository jobRepository;
+    @Autowired
+    private StudentImportErrorRepository errorRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    private Path storage;
+
+    private final StudentChangePublisher studentChangePublisher = mock(StudentChangePublisher.class);
+    private final AtomicInteger batches = new AtomicInteger();
+    private int killAtBatch;
+    private StudentImportService importService;
+
+    /**
+     * Thrown past run's catch blocks, the job is left RUNNING as it is when its node stops
+     */
+    private static class NodeStopped extends Error {
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(storage.resolve("students.csv"), CSV);
+        StorageService storageService = mock(StorageService.class);
+        when(storageService.load(anyString())).thenAnswer(invocation -> storage.resolve((String) invocation.getArgument(0)));
+        doAnswer(invocation -> {
+            if (batches.incrementAndGet() == killAtBatch) {
+                throw new NodeStopped();
+            }
+            return null;
+        }).when(studentChangePublisher).record(any(), any());
+
+        importService = new StudentImportService(jobRepository, errorRepository, storageService, jdbcTemplate,
+                new TransactionTemplate(transactionManager), studentChangePublisher,
+                new StudentQueryCache(true, 1000, 300, new SimpleMeterRegistry()), 2, 100, 0, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+        jdbcTemplate.update("delete from student_import_error");
+        jdbcTemplate.update("delete from student_import_job");
+        jdbcTemplate.update("delete from student");
+    }
+
+    private UUID queuedJob() {
+        UUID id = UUID.randomUUID();
+        jobRepository.save(StudentImportJob.builder()
+                .id(id)
+                .fileName("students.csv")
+                .storedFile("students.csv")
+                .status(StudentImportStatus.QUEUED)
+                .committedRow(1)
+                .updatedAt(ZonedDateTime.now())
+                .build());
+        return id;
+    }
+
+    private StudentImportJob awaitFinished(UUID id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        StudentImportJob job = jobRepository.findById(id).orElseThrow();
+        while (job.getStatus() != StudentImportStatus.COMPLETED && job.getStatus() != StudentImportStatus.FAILED
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = jobRepository.findById(id).orElseThrow();
+        }
+        return job;
+    }
+
+    private long studentsWithEmail(String email) {
+        return jdbcTemplate.queryForObject("select count(*) from student where email = ?", Long.class, email);
+    }
+
+    @Test
+    void validRowsAreImportedAndInvalidOnesRecorded() {
+        UUID id = queuedJob();
+
+        importService.run(id);
+
+        StudentImportJob job = jobRepository.findById(id).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(StudentImportStatus.COMPLETED);
+        assertThat(job.getImported()).isEqualTo(5);
+        assertThat(job.getRejected()).isEqualTo(1);
+        assertThat(job.getCommittedRow()).isEqualTo(9);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from student", Long.class)).isEqualTo(5);
+        // the blank line and the row of empty cells are skipped, only the bad email is an error
+        assertThat(errorRepository.findAll())
+                .singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getRowNumber()).isEqualTo(5);
+                    assertThat(error.getMessage()).isEqualTo("email is not a valid address");
+                });
+    }
+
+    @Test
+    void aJobKilledMidRunResumesWithoutDuplicates() throws InterruptedException {
+        UUID id = queuedJob();
+        killAtBatch = 2;
+
+        assertThatThrownBy(() -> importService.run(id)).isInstanceOf(NodeStopped.class);
+
+        StudentImportJob killed = jobRepository.findById(id).orElseThrow();
+        assertThat(killed.getStatus()).isEqualTo(StudentImportStatus.RUNNING);
+        assertThat(killed.getCommittedRow()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from student", Long.class)).isEqualTo(2);
+
+        // stale-after-seconds is 0, a RUNNING job counts as abandoned straight away
+        assertThat(importService.resumeImport(id).getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        StudentImportJob resumed = awaitFinished(id);
+
+        assertThat(resumed.getStatus()).isEqualTo(StudentImportStatus.COMPLETED);
+        assertThat(resumed.getImported()).isEqualTo(5);
+        assertThat(resumed.getRejected()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from student", Long.class)).isEqualTo(5);
+        for (String email : new String[]{"ama@example.com", "kofi@example.com", "yaw@example.com",
+                "abena@example.com", "kwesi@example.com"}) {
+            assertThat(studentsWithEmail(email)).as(email).isEqualTo(1);
+        }
+        assertThat(errorRepository.countByJobId(id)).isEqualTo(1);
+    }
+
+    @Test
+    void aCompletedJobCannotBeResumed() {
+        UUID id = queuedJob();
+        importService.run(id);
+
+        assertThat(importService.resumeImport(id).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+}
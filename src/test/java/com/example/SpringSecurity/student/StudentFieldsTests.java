@@ -0,0 +1,76 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.dto.StudentDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StudentFieldsTests {
+
+    private static HttpStatus statusOf(Runnable parse) {
+        try {
+            parse.run();
+        } catch (ResponseStatusException e) {
+            return HttpStatus.valueOf(e.getStatusCode().value());
+        }
+        return HttpStatus.OK;
+    }
+
+    private static List<String> propertiesOf(Class<?> type) {
+        return Arrays.stream(type.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .map(Field::getName)
+                .toList();
+    }
+
+    @Test
+    void everyStudentDtoPropertyIsListedInDeclarationOrder() {
+        assertThat(StudentFields.ALL).isEqualTo(propertiesOf(StudentDto.class));
+        assertThat(propertiesOf(Student.class)).containsAll(StudentFields.ALL);
+    }
+
+    @Test
+    void anAbsentParamSelectsNothing() {
+        assertThat(StudentFields.parse(null)).isNull();
+        assertThat(StudentFields.parse("  ")).isNull();
+    }
+
+    @Test
+    void namesComeBackInDeclarationOrder() {
+        assertThat(StudentFields.parse("email,firstName,id")).containsExactly("id", "firstName", "email");
+        assertThat(StudentFields.parse("version,lastName")).containsExactly("lastName", "version");
+    }
+
+    @Test
+    void spellingsOfTheSameRequestAreEqual() {
+        assertThat(StudentFields.parse(" ID , firstname,,FIRSTNAME"))
+                .isEqualTo(StudentFields.parse("firstName,id"))
+                .containsExactly("id", "firstName");
+    }
+
+    @Test
+    void unknownOrMissingNamesAreRejected() {
+        assertThat(statusOf(() -> StudentFields.parse("id,password"))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(statusOf(() -> StudentFields.parse("createdAt"))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(statusOf(() -> StudentFields.parse(",, ,"))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThatThrownBy(() -> StudentFields.parse("id,first_name,pass"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("first_name,pass");
+    }
+
+    @Test
+    void rowsKeepTheSelectedOrder() {
+        Map<String, Object> row = StudentFields.row(List.of("id", "email"), new Object[]{"1", "ama@example.com"});
+
+        assertThat(row).containsExactly(Map.entry("id", "1"), Map.entry("email", "ama@example.com"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.SpringSecurity.student;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loaders count their calls, a hit is a get that did not call its loader
+ */
+class StudentQueryCacheTests {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static StudentQueryCache cache(boolean enabled, long maxWeight) {
+        return new StudentQueryCache(enabled, maxWeight, 300, new SimpleMeterRegistry());
+    }
+
+    private static StudentQuerySpec spec(String key) {
+        return StudentQuerySpec.builder().key(key).build();
+    }
+
+    private Supplier<Object> rows(int count) {
+        return () -> {
+            loads.incrementAndGet();
+            return Collections.nCopies(count, "row");
+        };
+    }
+
+    @Test
+    void equalSpecsAreLoadedOnce() {
+        StudentQueryCache cache = cache(true, 1000);
+        Object first = cache.get(spec("page=0"), rows(3));
+        Object second = cache.get(spec("page=0"), rows(3));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.hitRate()).isEqualTo(0.5);
+
+        cache.get(spec("page=1"), rows(3));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void writesMakeEarlierResultsUnreachable() {
+        StudentQueryCache cache = cache(true, 1000);
+        cache.get(spec("page=0"), rows(3));
+        cache.get(spec("page=1"), rows(3));
+
+        cache.invalidate();
+        cache.get(spec("page=0"), rows(3));
+        cache.get(spec("page=1"), rows(3));
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void aReadRacingAnUncommittedWriteIsDroppedOnCommit() {
+        StudentQueryCache cache = cache(true, 1000);
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate();
+        // another request reads before the write commits and caches the old rows under the new generation
+        cache.get(spec("page=0"), rows(3));
+        cache.get(spec("page=0"), rows(3));
+        assertThat(loads).hasValue(1);
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        cache.get(spec("page=0"), rows(3));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void weightIsCountedInRows() {
+        StudentQueryCache cache = cache(true, 100);
+        cache.get(spec("a"), rows(40));
+        cache.get(spec("b"), rows(40));
+        assertThat(cache.rowsHeld()).isEqualTo(82);
+
+        cache.get(spec("c"), rows(40));
+        assertThat(cache.rowsHeld()).isLessThanOrEqualTo(100);
+
+        // a result heavier than the whole cache is served but not kept
+        cache.get(spec("d"), rows(500));
+        assertThat(cache.rowsHeld()).isLessThanOrEqualTo(100);
+        loads.set(0);
+        cache.get(spec("d"), rows(500));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        StudentQueryCache cache = cache(false, 1000);
+        cache.get(spec("page=0"), rows(1));
+        cache.get(spec("page=0"), rows(1));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.rowsHeld()).isZero();
+    }
+}
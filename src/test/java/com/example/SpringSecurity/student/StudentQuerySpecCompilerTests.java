@@ -0,0 +1,158 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.utility.CountMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The metamodel is stubbed with the basic attributes of Student
+ */
+class StudentQuerySpecCompilerTests {
+
+    private StudentQuerySpecCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        compiler = compiler("id", "firstName", "lastName", "email", "version", "createdAt");
+    }
+
+    private static StudentQuerySpecCompiler compiler(String... attributeNames) {
+        Set<SingularAttribute<? super Student, ?>> attributes = new LinkedHashSet<>();
+        for (String name : attributeNames) {
+            attributes.add(basicAttribute(name));
+        }
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class, RETURNS_DEEP_STUBS);
+        when(entityManagerFactory.getMetamodel().entity(Student.class).getSingularAttributes()).thenReturn(attributes);
+        StudentCountService studentCountService = mock(StudentCountService.class);
+        when(studentCountService.getDefaultMode()).thenReturn(CountMode.EXACT);
+
+        return new StudentQuerySpecCompiler(entityManagerFactory, studentCountService, 100, 50, new SimpleMeterRegistry());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SingularAttribute<? super Student, ?> basicAttribute(String name) {
+        SingularAttribute<Student, Object> attribute = mock(SingularAttribute.class);
+        when(attribute.getName()).thenReturn(name);
+        when(attribute.getPersistentAttributeType()).thenReturn(Attribute.PersistentAttributeType.BASIC);
+        return attribute;
+    }
+
+    private static HttpStatus statusOf(Runnable compile) {
+        try {
+            compile.run();
+        } catch (ResponseStatusException e) {
+            return HttpStatus.valueOf(e.getStatusCode().value());
+        }
+        return HttpStatus.OK;
+    }
+
+    @Test
+    void defaultsToTheNewestStudentsFirst() {
+        StudentQuerySpec spec = compiler.compile(Map.of());
+
+        assertThat(spec.isPaginate()).isFalse();
+        assertThat(spec.getPage()).isZero();
+        assertThat(spec.getSize()).isEqualTo(10);
+        assertThat(spec.getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "createdAt"));
+        assertThat(spec.getView()).isEqualTo(StudentQuerySpec.View.FULL);
+    }
+
+    @Test
+    void spellingsOfTheSameRequestShareAKey() {
+        StudentQuerySpec camel = compiler.compile(Map.of("paginate", "true", "sortBy", "firstName", "sortDir", "ASC"));
+        StudentQuerySpec snake = compiler.compile(Map.of("paginate", " true ", "sortBy", "first_name", "sortDir", "asc"));
+
+        assertThat(snake.getKey()).isEqualTo(camel.getKey());
+        assertThat(snake.getSort()).isEqualTo(Sort.by(Sort.Direction.ASC, "firstName"));
+    }
+
+    @Test
+    void sizeIsCappedAtTheMaximumPageSize() {
+        assertThat(compiler.compile(Map.of("paginate", "true", "size", "2147483647")).getSize()).isEqualTo(50);
+        assertThat(compiler.compile(Map.of("paginate", "true", "size", "20")).getSize()).isEqualTo(20);
+    }
+
+    @Test
+    void pagesBeyondTheLargestOffsetAreRejected() {
+        // offset (page - 1) * size must fit the int the queries take
+        int lastPage = Integer.MAX_VALUE / 50 + 1;
+        assertThat(compiler.compile(Map.of("paginate", "true", "size", "50", "page", String.valueOf(lastPage)))
+                .toPageable().getOffset()).isLessThanOrEqualTo(Integer.MAX_VALUE);
+        assertThat(statusOf(() -> compiler.compile(Map.of("paginate", "true", "size", "50",
+                "page", String.valueOf(lastPage + 1))))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(statusOf(() -> compiler.compile(Map.of("paginate", "true", "size", "50",
+                "page", String.valueOf(Integer.MAX_VALUE))))).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void paramsThatCannotBeAppliedAreRejected() {
+        assertThat(statusOf(() -> compiler.compile(Map.of("sortBy", "password")))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(statusOf(() -> compiler.compile(Map.of("sortDir", "sideways")))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(statusOf(() -> compiler.compile(Map.of("createdFrom", "yesterday")))).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(statusOf(() -> compiler.compile(Map.of("createdFrom", "2024-05-01", "createdTo", "2024-04-01"))))
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void selectableFieldsMustBeStudentAttributes() {
+        // as if Student.email had been renamed
+        assertThatThrownBy(() -> compiler("id", "firstName", "lastName", "emailAddress", "version", "createdAt"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("email");
+    }
+
+    @Test
+    void fieldsAreCompiledIntoTheSpec() {
+        assertThat(compiler.compile(Map.of("fields", "email,ID")).getFields()).containsExactly("id", "email");
+        assertThat(statusOf(() -> compiler.compile(Map.of("fields", "password")))).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void valuesHoldingSeparatorsDoNotShareACompiledSpec() {
+        // TreeMap.toString of the first is "{firstName=a, lastName=b}", the same as the second
+        StudentQuerySpec smuggled = compiler.compile(Map.of("firstName", "a, lastName=b"));
+        StudentQuerySpec both = compiler.compile(Map.of("firstName", "a", "lastName", "b"));
+
+        assertThat(smuggled.getFirstName()).isEqualTo("a, lastname=b");
+        assertThat(smuggled.getLastName()).isNull();
+        assertThat(both.getFirstName()).isEqualTo("a");
+        assertThat(both.getLastName()).isEqualTo("b");
+        assertThat(smuggled.getKey()).isNotEqualTo(both.getKey());
+    }
+
+    @Test
+    void filtersHoldingSeparatorsGetTheirOwnQueryKey() {
+        StudentQuerySpec first = compiler.compile(Map.of("firstName", "a|b", "lastName", "c"));
+        StudentQuerySpec second = compiler.compile(Map.of("firstName", "a", "lastName", "b|c"));
+        StudentQuerySpec nulls = compiler.compile(Map.of("firstName", "null"));
+
+        assertThat(first.getKey()).isNotEqualTo(second.getKey());
+        assertThat(nulls.getKey()).isNotEqualTo(compiler.compile(Map.of()).getKey());
+    }
+
+    @Test
+    void keysAreLengthPrefixed() {
+        assertThat(StudentQuerySpecCompiler.key(Arrays.asList("a|b", null, "", "12")))
+                .isEqualTo("3:a|b-0:2:12");
+        assertThat(StudentQuerySpecCompiler.key(Arrays.asList("a", "b|c")))
+                .isNotEqualTo(StudentQuerySpecCompiler.key(Arrays.asList("a|b", "c")));
+    }
+}
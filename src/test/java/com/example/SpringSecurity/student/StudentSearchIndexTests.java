@@ -0,0 +1,148 @@
+package com.example.SpringSecurity.student;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The catalog lookups of buildIndex are answered by a mocked connection, Postgres is not needed
+ */
+class StudentSearchIndexTests {
+
+    private final Connection connection = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+    private final StudentSearchIndex studentSearchIndex = new StudentSearchIndex(null, true);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(connection.createStatement()).thenReturn(statement);
+        lockFree(true);
+    }
+
+    private void lockFree(boolean answer) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(statement.executeQuery(contains("pg_try_advisory_lock"))).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getBoolean(1)).thenReturn(answer);
+    }
+
+    private void indexValid(Boolean... answers) throws SQLException {
+        stubLookup("pg_index", answers);
+    }
+
+    private void buildInProgress(boolean answer) throws SQLException {
+        stubLookup("pg_stat_progress_create_index", answer);
+    }
+
+    private void stubLookup(String catalog, Boolean... answers) throws SQLException {
+        PreparedStatement lookup = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.prepareStatement(contains(catalog))).thenReturn(lookup);
+        when(lookup.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(answers[0], Arrays.copyOfRange(answers, 1, answers.length));
+    }
+
+    @Test
+    void aValidIndexIsLeftAlone() throws SQLException {
+        indexValid(true);
+
+        assertThat(studentSearchIndex.buildIndex(connection)).isTrue();
+        verify(connection, never()).createStatement();
+    }
+
+    @Test
+    void anotherSessionHoldingTheLockIsNotWaitedFor() throws SQLException {
+        indexValid(false);
+        lockFree(false);
+
+        assertThat(studentSearchIndex.buildIndex(connection)).isNull();
+        verify(statement, never()).execute(anyString());
+    }
+
+    @Test
+    void anIndexBuiltBeforeTheLockWasTakenIsNotRebuilt() throws SQLException {
+        indexValid(false, true);
+
+        assertThat(studentSearchIndex.buildIndex(connection)).isTrue();
+        verify(statement, never()).execute(startsWith("drop"));
+        verify(statement, never()).execute(startsWith("create"));
+        verify(statement).execute("select pg_advisory_unlock(" + StudentSearchIndex.BUILD_LOCK + ")");
+    }
+
+    @Test
+    void aBuildInProgressIsNotDropped() throws SQLException {
+        indexValid(false, false);
+        buildInProgress(true);
+
+        assertThat(studentSearchIndex.buildIndex(connection)).isNull();
+        verify(statement, never()).execute(startsWith("drop"));
+        verify(statement, never()).execute(startsWith("create"));
+        verify(statement).execute("select pg_advisory_unlock(" + StudentSearchIndex.BUILD_LOCK + ")");
+    }
+
+    @Test
+    void anInvalidIndexIsRebuiltUnderTheLock() throws SQLException {
+        indexValid(false, false, true);
+        buildInProgress(false);
+
+        assertThat(studentSearchIndex.buildIndex(connection)).isTrue();
+        InOrder order = inOrder(statement);
+        order.verify(statement).executeQuery("select pg_try_advisory_lock(" + StudentSearchIndex.BUILD_LOCK + ")");
+        order.verify(statement).execute(startsWith("drop index concurrently"));
+        order.verify(statement).execute(startsWith("create index concurrently"));
+        order.verify(statement).execute("select pg_advisory_unlock(" + StudentSearchIndex.BUILD_LOCK + ")");
+    }
+
+    @Test
+    void theLockIsReleasedWhenTheBuildFails() throws SQLException {
+        indexValid(false, false);
+        buildInProgress(false);
+        when(statement.execute(startsWith("create index"))).thenThrow(new SQLException("deadlock detected"));
+
+        assertThatThrownBy(() -> studentSearchIndex.buildIndex(connection)).isInstanceOf(SQLException.class);
+        verify(statement).execute("select pg_advisory_unlock(" + StudentSearchIndex.BUILD_LOCK + ")");
+    }
+
+    @Test
+    void h2KeepsPrefixMatching() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:search-index");
+        StudentSearchIndex h2 = new StudentSearchIndex(new JdbcTemplate(dataSource), true);
+
+        h2.createIndex();
+
+        assertThat(h2.isTrigramReady()).isFalse();
+    }
+
+    @Test
+    void theMigrationIndexesTheSearchedExpression() throws IOException {
+        String migration = new ClassPathResource("db/migration/postgresql/V7__student_search_trgm_idx.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(migration.replaceAll("\\s+", " "))
+                .contains("((" + StudentSearchIndex.DOCUMENT.replace("s.", "") + ") gin_trgm_ops)");
+    }
+}
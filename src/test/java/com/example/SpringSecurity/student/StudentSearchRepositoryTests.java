@@ -0,0 +1,84 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.dto.StudentDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The prefix matching search falls back to on H2, or on Postgres until the trigram index is valid
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+class StudentSearchRepositoryTests {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<Student> students = new ArrayList<>();
+        students.add(student("Ama", "Mensah", "ama.mensah@example.com"));
+        students.add(student("Kofi", "Amankwah", "kofi@example.com"));
+        students.add(student("Esi", "Owusu", "esi@example.com"));
+        students.add(student("Kwame", "Asante", "100%_kwame@example.com"));
+        studentRepository.saveAll(students);
+    }
+
+    private static Student student(String firstName, String lastName, String email) {
+        return Student.builder().firstName(firstName).lastName(lastName).email(email).build();
+    }
+
+    private static List<String> firstNames(Slice<StudentDto> slice) {
+        return slice.getContent().stream().map(StudentDto::getFirstName).toList();
+    }
+
+    @Test
+    void prefixesOfAnyFieldMatch() {
+        assertThat(firstNames(studentRepository.searchStudents("am", false, PageRequest.of(0, 10))))
+                .containsExactly("Ama", "Kofi");
+        assertThat(firstNames(studentRepository.searchStudents("esi@", false, PageRequest.of(0, 10))))
+                .containsExactly("Esi");
+    }
+
+    @Test
+    void onlyPrefixesMatch() {
+        assertThat(studentRepository.searchStudents("mensa", false, PageRequest.of(0, 10))).hasSize(1);
+        assertThat(studentRepository.searchStudents("ensah", false, PageRequest.of(0, 10))).isEmpty();
+        assertThat(studentRepository.searchStudents("amma", false, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void likeWildcardsInTheTermAreMatchedLiterally() {
+        assertThat(firstNames(studentRepository.searchStudents("100%_", false, PageRequest.of(0, 10))))
+                .containsExactly("Kwame");
+        assertThat(studentRepository.searchStudents("%", false, PageRequest.of(0, 10))).isEmpty();
+        assertThat(studentRepository.searchStudents("_", false, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void slicesTellWhetherThereIsANextPage() {
+        Slice<StudentDto> first = studentRepository.searchStudents("am", false, PageRequest.of(0, 1));
+        Slice<StudentDto> second = studentRepository.searchStudents("am", false, PageRequest.of(1, 1));
+
+        assertThat(firstNames(first)).containsExactly("Ama");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(firstNames(second)).containsExactly("Kofi");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void nothingIsServedPastTheRankedMatches() {
+        int lastPage = StudentRepositoryCustomImpl.MAX_SEARCH_MATCHES / 10;
+
+        assertThat(studentRepository.searchStudents("am", false, PageRequest.of(lastPage, 10))).isEmpty();
+        assertThat(studentRepository.searchStudents("am", false, PageRequest.of(Integer.MAX_VALUE / 10, 100))).isEmpty();
+    }
+}
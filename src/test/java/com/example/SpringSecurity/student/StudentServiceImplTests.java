@@ -0,0 +1,94 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.dto.StudentDto;
+import com.example.SpringSecurity.utility.CountMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudentServiceImplTests {
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final StudentQuerySpecCompiler studentQuerySpecCompiler = mock(StudentQuerySpecCompiler.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final StudentSearchIndex studentSearchIndex = mock(StudentSearchIndex.class);
+    private StudentServiceImpl studentService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(studentQuerySpecCompiler.compile(anyMap())).thenReturn(StudentQuerySpec.builder()
+                .key("all")
+                .view(StudentQuerySpec.View.FULL)
+                .sort(Sort.by("createdAt"))
+                .countMode(CountMode.EXACT)
+                .build());
+        when(studentRepository.findAllStudentDtos())
+                .thenReturn(List.of(new StudentDto(UUID.randomUUID(), "Ama", "Mensah", "ama@example.com", 0L)));
+
+        StudentQueryCache studentQueryCache = new StudentQueryCache(true, 1000, 300, new SimpleMeterRegistry());
+        studentService = new StudentServiceImpl(studentRepository, null, studentQueryCache, studentQuerySpecCompiler,
+                null, new TransactionTemplate(transactionManager), null, studentSearchIndex);
+    }
+
+    @Test
+    void cacheHitsOpenNoTransaction() {
+        assertThat(studentService.findAllStudents(Map.of()).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(studentService.findAllStudents(Map.of()).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(studentService.findAllStudents(Map.of()).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        verify(studentRepository, times(1)).findAllStudentDtos();
+        // the miss ran in one read-only transaction, so it was routed to a replica when there is one
+        verify(transactionManager, times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void searchPagesPastTheRankedMatchesAreRejected() {
+        when(studentRepository.searchStudents(anyString(), anyBoolean(), any()))
+                .thenAnswer(invocation -> new SliceImpl<>(List.of(), invocation.getArgument(2), false));
+
+        assertThat(studentService.searchStudents(Map.of("q", "ama", "page", "10", "size", "100")).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(studentService.searchStudents(Map.of("q", "ama", "page", "11", "size", "100")).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        // the offset would overflow an int
+        assertThat(studentService.searchStudents(Map.of("q", "ama", "page", String.valueOf(Integer.MAX_VALUE), "size", "100"))
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(studentRepository, times(1)).searchStudents(anyString(), anyBoolean(), any());
+    }
+
+    @Test
+    void searchTermsAreNormalised() {
+        when(studentRepository.searchStudents(anyString(), anyBoolean(), any()))
+                .thenAnswer(invocation -> new SliceImpl<>(List.of(), invocation.getArgument(2), false));
+
+        studentService.searchStudents(Map.of("q", "  Ama   MENSAH "));
+
+        verify(studentRepository).searchStudents(eq("ama mensah"), anyBoolean(), any());
+        assertThat(studentService.searchStudents(Map.of("q", "  ")).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.SpringSecurity.student;
+
+import com.example.SpringSecurity.dto.StudentDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * updateFields returns the row as written by the UPDATE itself, on H2 through FINAL TABLE
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+class StudentUpdateRepositoryTests {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        student = studentRepository.saveAndFlush(Student.builder()
+                .firstName("Ama").lastName("Mensah").email("ama@example.com").build());
+    }
+
+    @Test
+    void partialUpdatesReturnTheMergedRowAndNextVersion() {
+        StudentDto updated = studentRepository.updateFields(student.getId(), student.getVersion(),
+                Map.of("lastName", "Owusu")).orElseThrow();
+
+        assertThat(updated).isEqualTo(new StudentDto(student.getId(), "Ama", "Owusu", "ama@example.com",
+                student.getVersion() + 1));
+    }
+
+    @Test
+    void everyGivenColumnIsWritten() {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("firstName", "Esi");
+        changes.put("lastName", "Owusu");
+        changes.put("email", "esi@example.com");
+
+        StudentDto updated = studentRepository.updateFields(student.getId(), null, changes).orElseThrow();
+
+        assertThat(updated).isEqualTo(new StudentDto(student.getId(), "Esi", "Owusu", "esi@example.com",
+                student.getVersion() + 1));
+    }
+
+    @Test
+    void staleVersionsAndMissingIdsUpdateNothing() {
+        assertThat(studentRepository.updateFields(student.getId(), student.getVersion() + 1,
+                Map.of("firstName", "Esi"))).isEmpty();
+        assertThat(studentRepository.updateFields(UUID.randomUUID(), null, Map.of("firstName", "Esi"))).isEmpty();
+    }
+
+    @Test
+    void onlyNameAndEmailColumnsCanBeWritten() {
+        assertThatThrownBy(() -> studentRepository.updateFields(student.getId(), null, Map.of("version", 7L)))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.SpringSecurity.throttling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the limiter on a virtual clock against a stub repository whose latency can be raised,
+ * the way Postgres slowing down looks from the controller
+ */
+class AdaptiveConcurrencyLimiterSimulationTests {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * A connection pool of poolSize connections in front of queries taking queryNanos (plus injected latency):
+     * requests beyond the pool wait for earlier ones, so latency grows with concurrency
+     */
+    private static class StubStudentRepository {
+        private final int poolSize;
+        private final long queryNanos;
+        private long injectedNanos;
+
+        private StubStudentRepository(int poolSize, long queryNanos) {
+            this.poolSize = poolSize;
+            this.queryNanos = queryNanos;
+        }
+
+        long latency(int inFlight) {
+            int rounds = (inFlight + poolSize - 1) / poolSize;
+            return rounds * (queryNanos + injectedNanos);
+        }
+    }
+
+    private record Completion(long at, AdaptiveConcurrencyLimiter.Permit permit) {
+    }
+
+    private static class Phase {
+        long normal;
+        long bulk;
+        long normalRejected;
+        long bulkRejected;
+        int maxInFlight;
+        final List<Long> latencies = new ArrayList<>();
+
+        long p99() {
+            Collections.sort(latencies);
+            return latencies.isEmpty() ? 0 : latencies.get((int) (latencies.size() * 0.99));
+        }
+    }
+
+    private long now;
+    private final PriorityQueue<Completion> completions = new PriorityQueue<>((a, b) -> Long.compare(a.at, b.at));
+    private final StubStudentRepository repository = new StubStudentRepository(10, 5 * MS);
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 10, 200, 0.5, 1.5, SECOND, () -> now);
+
+    /**
+     * Open model arrivals at a fixed rate, every fifth request a bulk call
+     */
+    private Phase run(long durationNanos, int requestsPerSecond, long measureFromNanos) {
+        Phase phase = new Phase();
+        long interval = SECOND / requestsPerSecond;
+        long start = now;
+        long end = start + durationNanos;
+        long sequence = 0;
+        for (long arrival = start; arrival < end; arrival += interval, sequence++) {
+            while (!completions.isEmpty() && completions.peek().at <= arrival) {
+                Completion completion = completions.poll();
+                now = completion.at;
+                completion.permit.success();
+            }
+            now = arrival;
+            boolean measured = arrival - start >= measureFromNanos;
+            AdaptiveConcurrencyLimiter.Priority priority = sequence % 5 == 0
+                    ? AdaptiveConcurrencyLimiter.Priority.BULK
+                    : AdaptiveConcurrencyLimiter.Priority.NORMAL;
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority);
+            if (!measured) {
+                if (permit != null) {
+                    completions.add(new Completion(now + repository.latency(limiter.getInFlight()), permit));
+                }
+                continue;
+            }
+
+            if (priority == AdaptiveConcurrencyLimiter.Priority.BULK) {
+                phase.bulk++;
+                phase.bulkRejected += permit == null ? 1 : 0;
+            } else {
+                phase.normal++;
+                phase.normalRejected += permit == null ? 1 : 0;
+            }
+            if (permit != null) {
+                long latency = repository.latency(limiter.getInFlight());
+                phase.latencies.add(latency);
+                phase.maxInFlight = Math.max(phase.maxInFlight, limiter.getInFlight());
+                completions.add(new Completion(now + latency, permit));
+            }
+        }
+        return phase;
+    }
+
+    @Test
+    void shedsLoadWhenTheRepositorySlowsDownAndRecoversAfterwards() {
+        // 1500 req/s against a capacity of 10 connections / 5ms = 2000 req/s
+        Phase healthy = run(10 * SECOND, 1500, 2 * SECOND);
+        assertThat(healthy.normalRejected + healthy.bulkRejected).isZero();
+        assertThat(healthy.p99()).isLessThanOrEqualTo(5 * MS);
+
+        // queries now take 50ms, capacity drops to 200 req/s
+        repository.injectedNanos = 45 * MS;
+        Phase degraded = run(60 * SECOND, 1500, 20 * SECOND);
+        assertThat(degraded.normalRejected).isPositive();
+        // in-flight requests stay bounded, latency stays near one query instead of growing with the backlog
+        assertThat(degraded.maxInFlight).isLessThanOrEqualTo(20);
+        assertThat(degraded.p99()).isLessThanOrEqualTo(2 * 50 * MS);
+        // bulk calls are shed before reads
+        double normalRejection = (double) degraded.normalRejected / degraded.normal;
+        double bulkRejection = (double) degraded.bulkRejected / degraded.bulk;
+        assertThat(bulkRejection).isGreaterThan(normalRejection);
+        // while the database is kept busy, it can do 200 req/s now
+        long served = degraded.normal + degraded.bulk - degraded.normalRejected - degraded.bulkRejected;
+        assertThat(served / 40.0).isGreaterThan(180);
+
+        repository.injectedNanos = 0;
+        Phase recovered = run(30 * SECOND, 1500, 20 * SECOND);
+        assertThat(recovered.normalRejected + recovered.bulkRejected).isZero();
+        assertThat(recovered.p99()).isLessThanOrEqualTo(10 * MS);
+    }
+
+    @Test
+    void bulkCallsNeverTakeMoreThanTheirShare() {
+        repository.injectedNanos = 1000 * MS;
+        AdaptiveConcurrencyLimiter.Permit permit;
+        int bulk = 0;
+        while ((permit = limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.BULK)) != null) {
+            completions.add(new Completion(now + repository.latency(limiter.getInFlight()), permit));
+            bulk++;
+        }
+        int normal = 0;
+        while ((permit = limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.NORMAL)) != null) {
+            completions.add(new Completion(now + repository.latency(limiter.getInFlight()), permit));
+            normal++;
+        }
+        assertThat(bulk).isEqualTo(10);
+        assertThat(bulk + normal).isEqualTo(20);
+        assertThat(limiter.getRejected()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.SpringSecurity.throttling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the limiter on a virtual clock, every request passes the time it arrives at
+ */
+class RateLimiterSimulationTests {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 10 requests per second, 5 at once
+     */
+    private final RateLimiter.Rule rule = new RateLimiter.Rule(10, 5);
+    private final RateLimiter limiter = new RateLimiter(1000);
+    private long now = 1_000 * SECOND;
+
+    private int allowedAtOnce(String key) {
+        int allowed = 0;
+        while (limiter.tryAcquire(key, rule, now) == 0) {
+            allowed++;
+        }
+        return allowed;
+    }
+
+    @Test
+    void aNewClientGetsTheWholeBurst() {
+        assertThat(allowedAtOnce("ama")).isEqualTo(5);
+        // the next token is one interval away
+        assertThat(limiter.tryAcquire("ama", rule, now)).isEqualTo(100 * MS);
+    }
+
+    @Test
+    void tokensRefillAtTheRate() {
+        allowedAtOnce("ama");
+
+        now += 99 * MS;
+        assertThat(limiter.tryAcquire("ama", rule, now)).isEqualTo(MS);
+        now += MS;
+        assertThat(limiter.tryAcquire("ama", rule, now)).isZero();
+        assertThat(limiter.tryAcquire("ama", rule, now)).isPositive();
+
+        now += 250 * MS;
+        assertThat(allowedAtOnce("ama")).isEqualTo(2);
+    }
+
+    @Test
+    void idleTimeDoesNotSaveUpMoreThanTheBurst() {
+        allowedAtOnce("ama");
+        now += 3600 * SECOND;
+
+        assertThat(allowedAtOnce("ama")).isEqualTo(5);
+    }
+
+    @Test
+    void waitingTheReportedTimeIsEnough() {
+        allowedAtOnce("ama");
+        for (int i = 0; i < 20; i++) {
+            long wait = limiter.tryAcquire("ama", rule, now);
+            assertThat(wait).isPositive();
+            now += wait;
+            assertThat(limiter.tryAcquire("ama", rule, now)).isZero();
+        }
+    }
+
+    @Test
+    void aSteadyOverloadIsHeldToTheRate() {
+        // 100 req/s offered for 10 seconds
+        int allowed = 0;
+        for (long arrival = 0; arrival < 10 * SECOND; arrival += 10 * MS) {
+            if (limiter.tryAcquire("ama", rule, now + arrival) == 0) {
+                allowed++;
+            }
+        }
+        assertThat(allowed).isBetween(10 * 10, 10 * 10 + 5);
+    }
+
+    @Test
+    void clientsHaveTheirOwnBuckets() {
+        allowedAtOnce("ama");
+
+        assertThat(allowedAtOnce("kofi")).isEqualTo(5);
+    }
+
+    @Test
+    void retryAfterIsRoundedUpToWholeSeconds() {
+        assertThat(RateLimitFilter.retryAfterSeconds(1)).isEqualTo(1);
+        assertThat(RateLimitFilter.retryAfterSeconds(100 * MS)).isEqualTo(1);
+        assertThat(RateLimitFilter.retryAfterSeconds(SECOND)).isEqualTo(1);
+        assertThat(RateLimitFilter.retryAfterSeconds(SECOND + 1)).isEqualTo(2);
+        assertThat(RateLimitFilter.retryAfterSeconds(59 * SECOND + 500 * MS)).isEqualTo(60);
+    }
+
+    @Test
+    void trackedKeysStayWithinMaxKeys() {
+        RateLimiter bounded = new RateLimiter(100);
+        for (int i = 0; i < 10_000; i++) {
+            bounded.tryAcquire("client-" + i, rule, now);
+        }
+        assertThat(bounded.estimatedSize()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedTheBurst() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Callable<Integer>> clients = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                clients.add(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int attempt = 0; attempt < 1000; attempt++) {
+                        if (limiter.tryAcquire("shared", rule, now) == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                });
+            }
+            List<Future<Integer>> results = new ArrayList<>();
+            for (Callable<Integer> client : clients) {
+                results.add(executor.submit(client));
+            }
+            start.countDown();
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get(5, TimeUnit.SECONDS);
+            }
+            assertThat(allowed).isEqualTo(5);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rulesNeedAPositiveRateAndBurst() {
+        assertThatThrownBy(() -> new RateLimiter.Rule(0, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimiter.Rule(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
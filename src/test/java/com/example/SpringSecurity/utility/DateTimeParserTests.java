@@ -0,0 +1,68 @@
+package com.example.SpringSecurity.utility;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * DateTimeParser must agree with the java.time parsers it replaces
+ */
+class DateTimeParserTests {
+
+    private static final ZoneId ZONE = ZoneId.of("Africa/Accra");
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2024-04-24T10:15:30+01:00[Europe/Paris]",
+            "2024-04-24T10:15:30Z",
+            "2024-04-24T10:15:30Z[UTC]",
+            "2024-04-24T10:15:30.123-05:30",
+            "2024-10-27T02:30:00+01:00[Europe/London]",
+            "2024-04-24T10:15:30+01:00[+01:00]"
+    })
+    void zonedValuesMatchZonedDateTimeParse(String text) {
+        assertThat(DateTimeParser.parse(text, ZONE).getValue()).isEqualTo(ZonedDateTime.parse(text));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2024-04-24T10:15", "2024-04-24T10:15:30", "2024-02-29T23:59:59.123456789", "2024-04-24T10:15:30.5"})
+    void localDateTimesUseTheDefaultZone(String text) {
+        assertThat(DateTimeParser.parse(text, ZONE).getValue()).isEqualTo(LocalDateTime.parse(text).atZone(ZONE));
+    }
+
+    @Test
+    void datesStartAtMidnight() {
+        assertThat(DateTimeParser.parse("2024-04-24", ZONE).getValue())
+                .isEqualTo(LocalDate.parse("2024-04-24").atStartOfDay(ZONE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "yesterday", "2024-4-24", "2023-02-29", "2024-13-01", "2024-04-24T24:00",
+            "2024-04-24T10:15:30+19:00", "2024-04-24T10:15:30+01:00[Mars/Olympus]", "2024-04-24 10:15",
+            "2024-04-24T10:15:30.", "2024-04-24T10:15:30+01:00[Europe/Paris"})
+    void invalidValuesReturnAnError(String text) {
+        DateTimeParser.Result result = DateTimeParser.parse(text, ZONE);
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getValue()).isNull();
+        assertThat(result.getError()).startsWith("Invalid date");
+    }
+
+    @Test
+    void parsesOnlyPresentParams() {
+        Map<String, DateTimeParser.Result> results = DateTimeParser.parseParams(
+                Map.of("createdFrom", "2024-04-24", "createdTo", " ", "page", "2"), "createdFrom", "createdTo");
+        assertThat(results).containsOnlyKeys("createdFrom");
+        assertThat(results.get("createdFrom").isValid()).isTrue();
+        assertThat(DateTimeParser.parseAll(List.of("2024-04-24", "bad"))).extracting(DateTimeParser.Result::isValid)
+                .containsExactly(true, false);
+    }
+}
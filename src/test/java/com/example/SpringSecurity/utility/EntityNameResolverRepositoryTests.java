@@ -0,0 +1,99 @@
+package com.example.SpringSecurity.utility;
+
+import com.example.SpringSecurity.student.Student;
+import com.example.SpringSecurity.student.StudentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * getNames selects only ids and names, one query for a batch of ids
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class EntityNameResolverRepositoryTests {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Student> students = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        students.add(student("Ama", "Mensah"));
+        students.add(student("Kofi", null));
+        students.add(student("Esi", "Owusu"));
+        studentRepository.saveAllAndFlush(students);
+        entityManager.clear();
+    }
+
+    private static Student student(String firstName, String lastName) {
+        return Student.builder().firstName(firstName).lastName(lastName).email(firstName + "@example.com").build();
+    }
+
+    private EntityNameResolver<Student> resolver(long cacheSize) {
+        return new EntityNameResolver<>(entityManager, Student.class, cacheSize, Duration.ofMinutes(5),
+                "firstName", "lastName");
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    void namesOfManyIdsComeFromOneQuery() {
+        UUID missing = UUID.randomUUID();
+        Statistics statistics = statistics();
+
+        var names = resolver(0).getNames(Arrays.asList(students.get(0).getId(), students.get(1).getId(),
+                students.get(2).getId(), students.get(0).getId(), missing, null));
+
+        assertThat(names).containsOnly(
+                entry(students.get(0).getId(), "Ama Mensah"),
+                entry(students.get(1).getId(), "Kofi"),
+                entry(students.get(2).getId(), "Esi Owusu"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void cachedNamesAreNotQueriedAgain() {
+        EntityNameResolver<Student> resolver = resolver(10);
+        resolver.getName(students.get(0).getId());
+        Statistics statistics = statistics();
+
+        assertThat(resolver.getNames(List.of(students.get(0).getId(), students.get(2).getId())))
+                .containsOnly(entry(students.get(0).getId(), "Ama Mensah"), entry(students.get(2).getId(), "Esi Owusu"));
+        assertThat(resolver.getName(students.get(2).getId())).isEqualTo("Esi Owusu");
+        // only Esi was missing from the cache
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        resolver.evict(students.get(0).getId());
+        resolver.getName(students.get(0).getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.SpringSecurity.utility;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityNameResolverTests {
+
+    public static class Named {
+        private final String name;
+
+        public Named(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            if (name == null) {
+                throw new IllegalArgumentException("no name");
+            }
+            return name;
+        }
+    }
+
+    public static class Unnamed {
+    }
+
+    @Test
+    void readsGetName() {
+        assertThat(EntityNameResolver.nameOf(new Named("Ama Mensah"))).isEqualTo("Ama Mensah");
+        assertThat(EntityNameResolver.nameOf(new Named("Kofi Boateng"))).isEqualTo("Kofi Boateng");
+    }
+
+    @Test
+    void entitiesWithoutGetNameHaveNoName() {
+        assertThat(EntityNameResolver.nameOf(new Unnamed())).isNull();
+        assertThat(EntityNameResolver.nameOf(null)).isNull();
+    }
+
+    @Test
+    void failuresOfGetNameReadAsNoName() {
+        assertThat(EntityNameResolver.nameOf(new Named(null))).isNull();
+    }
+}
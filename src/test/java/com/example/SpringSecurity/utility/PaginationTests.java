@@ -0,0 +1,58 @@
+package com.example.SpringSecurity.utility;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * isLast on estimated pages must come from the slice, not from the page length
+ */
+class PaginationTests {
+
+    @Test
+    void fullFinalPageWithEstimatedTotalIsLast() {
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(1, 2), false);
+
+        // a stale estimate of 10 rows, the page is full but the slice saw nothing past it
+        Pagination pagination = AppUtils.mapToPagination(slice, 10, true);
+
+        assertThat(pagination.isLast()).isTrue();
+        assertThat(pagination.hasNext()).isFalse();
+        assertThat(pagination.getTotalElements()).isEqualTo(4);
+        assertThat(pagination.isEstimated()).isFalse();
+    }
+
+    @Test
+    void shortPageWithMoreRowsIsNotLast() {
+        // the estimate undercounts, the slice still saw a row past the page
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(0, 2), true);
+
+        Pagination pagination = AppUtils.mapToPagination(slice, 1, true);
+
+        assertThat(pagination.isLast()).isFalse();
+        assertThat(pagination.hasNext()).isTrue();
+        assertThat(pagination.isEstimated()).isTrue();
+    }
+
+    @Test
+    void emptyPagePastTheEndKeepsTheEstimate() {
+        SliceImpl<String> slice = new SliceImpl<>(List.of(), PageRequest.of(5, 2), false);
+
+        Pagination pagination = AppUtils.mapToPagination(slice, 100, true);
+
+        assertThat(pagination.isLast()).isTrue();
+        assertThat(pagination.getTotalElements()).isEqualTo(100);
+    }
+
+    @Test
+    void exactTotalsStillDeriveIsLast() {
+        Pagination pagination = new Pagination(List.of("a", "b"), PageRequest.of(0, 2), 3);
+
+        assertThat(pagination.isLast()).isFalse();
+        assertThat(pagination.getTotalPages()).isEqualTo(2);
+    }
+}